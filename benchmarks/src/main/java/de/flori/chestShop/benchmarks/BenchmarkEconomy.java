@@ -0,0 +1,158 @@
+package de.flori.chestShop.benchmarks;
+
+import net.milkbowl.vault.economy.AbstractEconomy;
+import net.milkbowl.vault.economy.EconomyResponse;
+
+import java.util.List;
+
+/**
+ * Vault economy stub where every account can pay anything. Keeps the economy out of the measurements.
+ */
+public class BenchmarkEconomy extends AbstractEconomy {
+
+    private static final double BALANCE = 1_000_000_000.0;
+    private static final EconomyResponse SUCCESS =
+            new EconomyResponse(0, BALANCE, EconomyResponse.ResponseType.SUCCESS, null);
+    private static final EconomyResponse NO_BANKS =
+            new EconomyResponse(0, 0, EconomyResponse.ResponseType.NOT_IMPLEMENTED, "No bank support");
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "Benchmark";
+    }
+
+    @Override
+    public boolean hasBankSupport() {
+        return false;
+    }
+
+    @Override
+    public int fractionalDigits() {
+        return 2;
+    }
+
+    @Override
+    public String format(double amount) {
+        return "$" + amount;
+    }
+
+    @Override
+    public String currencyNamePlural() {
+        return "Dollars";
+    }
+
+    @Override
+    public String currencyNameSingular() {
+        return "Dollar";
+    }
+
+    @Override
+    public boolean hasAccount(String playerName) {
+        return true;
+    }
+
+    @Override
+    public boolean hasAccount(String playerName, String worldName) {
+        return true;
+    }
+
+    @Override
+    public double getBalance(String playerName) {
+        return BALANCE;
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        return BALANCE;
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        return true;
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        return true;
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        return SUCCESS;
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        return SUCCESS;
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        return SUCCESS;
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        return SUCCESS;
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, String player) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public List<String> getBanks() {
+        return List.of();
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        return true;
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return true;
+    }
+}
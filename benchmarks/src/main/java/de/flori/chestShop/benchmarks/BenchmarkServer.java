@@ -0,0 +1,124 @@
+package de.flori.chestShop.benchmarks;
+
+import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.models.Shop;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.ServicePriority;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.plugin.MockPlugin;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import java.util.UUID;
+
+/**
+ * Mock server with the real plugin enabled on top of a stubbed Vault economy.
+ * Holograms, statistics and transaction logging are switched off so only the handler paths are measured.
+ * Setup and benchmark methods run on the same JMH thread, which MockBukkit treats as the main thread.
+ */
+public class BenchmarkServer {
+
+    public static final UUID OWNER_ID = UUID.fromString("00000000-0000-0000-0000-00000000b0b0");
+    public static final int SHOP_Y = 64;
+    // Background shops are placed on a grid starting at the origin, GRID_WIDTH shops per row
+    public static final int SHOP_SPACING = 8;
+    public static final int GRID_WIDTH = 256;
+
+    private final ServerMock server;
+    private final ChestShopPlugin plugin;
+    private final WorldMock world;
+    private int nextShopId;
+
+    private BenchmarkServer(ServerMock server, ChestShopPlugin plugin, WorldMock world) {
+        this.server = server;
+        this.plugin = plugin;
+        this.world = world;
+    }
+
+    public static BenchmarkServer start() {
+        ServerMock server = MockBukkit.mock();
+        MockPlugin vault = MockBukkit.createMockPlugin("Vault");
+        server.getServicesManager().register(Economy.class, new BenchmarkEconomy(), vault, ServicePriority.Normal);
+
+        ChestShopPlugin plugin = MockBukkit.loadWith(ChestShopPlugin.class,
+                new PluginDescriptionFile("ChestShop", "benchmark", ChestShopPlugin.class.getName()));
+
+        BenchmarkServer benchmarkServer = new BenchmarkServer(server, plugin, server.addSimpleWorld("world"));
+        benchmarkServer.applyBenchmarkConfig();
+        return benchmarkServer;
+    }
+
+    /**
+     * Switches off holograms, statistics and transaction logging, needed again after the configs were reloaded
+     */
+    public void applyBenchmarkConfig() {
+        FileConfiguration config = plugin.getConfigManager().getConfig();
+        config.set("holograms.enabled", false);
+        config.set("statistics.enabled", false);
+        config.set("logging.log-transactions", false);
+        plugin.reloadSettings();
+    }
+
+    public void stop() {
+        MockBukkit.unmock();
+    }
+
+    public ServerMock getServer() {
+        return server;
+    }
+
+    public ChestShopPlugin getPlugin() {
+        return plugin;
+    }
+
+    public WorldMock getWorld() {
+        return world;
+    }
+
+    public QuietPlayer addPlayer(String name) {
+        QuietPlayer player = new QuietPlayer(server, name);
+        server.addPlayer(player);
+        return player;
+    }
+
+    /**
+     * Registers {@code count} shops on the grid, without chest blocks (the lookups only use the index)
+     */
+    public void addBackgroundShops(int count) {
+        for (int i = 0; i < count; i++) {
+            int x = (i % GRID_WIDTH) * SHOP_SPACING;
+            int z = (i / GRID_WIDTH) * SHOP_SPACING;
+            createShop(x, SHOP_Y, z, Material.STONE);
+        }
+    }
+
+    /**
+     * Creates a shop with a real chest that holds {@code stacks} full stacks of the item
+     */
+    public Shop createStockedShop(int x, int y, int z, Material item, int amount, int stacks) {
+        Block chest = world.getBlockAt(x, y, z);
+        chest.setType(Material.CHEST);
+        world.getBlockAt(x, y + 1, z).setType(Material.OAK_SIGN);
+
+        Shop shop = plugin.getShopManager().createShop("bench-" + nextShopId++, OWNER_ID, "Owner",
+                new Location(world, x, y, z), new Location(world, x, y + 1, z), item, amount, 10.0, 5.0);
+        Inventory inventory = shop.getChestInventory();
+        for (int i = 0; i < stacks; i++) {
+            inventory.setItem(i, new ItemStack(item, item.getMaxStackSize()));
+        }
+        shop.invalidateInventoryCounts();
+        return shop;
+    }
+
+    private Shop createShop(int x, int y, int z, Material item) {
+        return plugin.getShopManager().createShop("bench-" + nextShopId++, OWNER_ID, "Owner",
+                new Location(world, x, y, z), new Location(world, x, y + 1, z), item, 1, 10.0, 5.0);
+    }
+}
@@ -0,0 +1,96 @@
+package de.flori.chestShop.benchmarks;
+
+import de.flori.chestShop.listeners.ChestShopListener;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChestShopListener.onBlockPlace, which scans the 26 neighbours of a placed hopper, dropper, piston or TNT
+ * for foreign shops, and onChestPlace, which scans them for shops that may have become a double chest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockPlaceBenchmark {
+
+    private static final int SHOP_X = -1024;
+    private static final int SHOP_Z = -1024;
+
+    private BenchmarkServer server;
+    private ChestShopListener listener;
+    private BlockPlaceEvent hopperNextToForeignShop;
+    private BlockPlaceEvent hopperInShopChunk;
+    private BlockPlaceEvent hopperWithoutShops;
+    private BlockPlaceEvent stoneNextToShop;
+    private BlockPlaceEvent chestNextToShop;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        server.addBackgroundShops(10_000);
+        listener = new ChestShopListener(server.getPlugin());
+
+        World world = server.getWorld();
+        server.createStockedShop(SHOP_X, BenchmarkServer.SHOP_Y, SHOP_Z, Material.DIAMOND, 1, 9);
+        Player player = server.addPlayer("Placer");
+
+        hopperNextToForeignShop = place(world.getBlockAt(SHOP_X + 1, BenchmarkServer.SHOP_Y, SHOP_Z), Material.HOPPER, player);
+        hopperInShopChunk = place(world.getBlockAt(SHOP_X + 8, BenchmarkServer.SHOP_Y, SHOP_Z + 8), Material.HOPPER, player);
+        hopperWithoutShops = place(world.getBlockAt(-4096, BenchmarkServer.SHOP_Y, -4096), Material.HOPPER, player);
+        stoneNextToShop = place(world.getBlockAt(SHOP_X - 1, BenchmarkServer.SHOP_Y, SHOP_Z), Material.STONE, player);
+        chestNextToShop = place(world.getBlockAt(SHOP_X, BenchmarkServer.SHOP_Y, SHOP_Z + 1), Material.CHEST, player);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    private static BlockPlaceEvent place(Block block, Material type, Player player) {
+        Block against = block.getRelative(0, -1, 0);
+        block.setType(type);
+        return new BlockPlaceEvent(block, block.getState(), against, new ItemStack(type), player, true, EquipmentSlot.HAND);
+    }
+
+    @Benchmark
+    public boolean hopperNextToForeignShop() {
+        return handle(hopperNextToForeignShop);
+    }
+
+    @Benchmark
+    public boolean hopperInShopChunk() {
+        return handle(hopperInShopChunk);
+    }
+
+    @Benchmark
+    public boolean hopperWithoutShops() {
+        return handle(hopperWithoutShops);
+    }
+
+    @Benchmark
+    public boolean stoneNextToShop() {
+        return handle(stoneNextToShop);
+    }
+
+    @Benchmark
+    public void chestNextToShop() {
+        listener.onChestPlace(chestNextToShop);
+    }
+
+    private boolean handle(BlockPlaceEvent event) {
+        event.setCancelled(false);
+        listener.onBlockPlace(event);
+        return event.isCancelled();
+    }
+}
@@ -0,0 +1,99 @@
+package de.flori.chestShop.benchmarks;
+
+import de.flori.chestShop.listeners.ChestShopListener;
+import de.flori.chestShop.models.Shop;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Chest;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChestShopListener.onInventoryMoveItem (hopper protection), called for every item a hopper moves.
+ * The events are reused, the handler only flips their cancelled flag.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryMoveBenchmark {
+
+    private BenchmarkServer server;
+    private ChestShopListener listener;
+    private InventoryMoveItemEvent hopperPullsFromShop;
+    private InventoryMoveItemEvent hopperPushesIntoShop;
+    private InventoryMoveItemEvent hopperPullsFromChestInShopChunk;
+    private InventoryMoveItemEvent hopperPullsFromChestWithoutShops;
+    private InventoryMoveItemEvent hopperToHopper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        server.addBackgroundShops(10_000);
+        listener = new ChestShopListener(server.getPlugin());
+
+        World world = server.getWorld();
+        Shop shop = server.createStockedShop(-1024, BenchmarkServer.SHOP_Y, -1024, Material.DIAMOND, 1, 9);
+        Inventory shopChest = shop.getChestInventory();
+        Inventory chestInShopChunk = placeChest(world.getBlockAt(-1020, BenchmarkServer.SHOP_Y, -1024));
+        Inventory chestWithoutShops = placeChest(world.getBlockAt(-4096, BenchmarkServer.SHOP_Y, -4096));
+        Inventory hopper = server.getServer().createInventory(null, InventoryType.HOPPER);
+        Inventory otherHopper = server.getServer().createInventory(null, InventoryType.HOPPER);
+        ItemStack item = new ItemStack(Material.DIAMOND);
+
+        hopperPullsFromShop = new InventoryMoveItemEvent(shopChest, item, hopper, false);
+        hopperPushesIntoShop = new InventoryMoveItemEvent(hopper, item, shopChest, true);
+        hopperPullsFromChestInShopChunk = new InventoryMoveItemEvent(chestInShopChunk, item, hopper, false);
+        hopperPullsFromChestWithoutShops = new InventoryMoveItemEvent(chestWithoutShops, item, hopper, false);
+        hopperToHopper = new InventoryMoveItemEvent(hopper, item, otherHopper, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    private static Inventory placeChest(Block block) {
+        block.setType(Material.CHEST);
+        return ((Chest) block.getState()).getInventory();
+    }
+
+    @Benchmark
+    public boolean pullFromShop() {
+        return handle(hopperPullsFromShop);
+    }
+
+    @Benchmark
+    public boolean pushMatchingItemIntoShop() {
+        return handle(hopperPushesIntoShop);
+    }
+
+    @Benchmark
+    public boolean pullFromChestInShopChunk() {
+        return handle(hopperPullsFromChestInShopChunk);
+    }
+
+    @Benchmark
+    public boolean pullFromChestWithoutShops() {
+        return handle(hopperPullsFromChestWithoutShops);
+    }
+
+    @Benchmark
+    public boolean hopperToHopper() {
+        return handle(hopperToHopper);
+    }
+
+    private boolean handle(InventoryMoveItemEvent event) {
+        event.setCancelled(false);
+        listener.onInventoryMoveItem(event);
+        return event.isCancelled();
+    }
+}
@@ -0,0 +1,259 @@
+package de.flori.chestShop.benchmarks;
+
+import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.commands.ChestShopCommand;
+import de.flori.chestShop.managers.ShopManager;
+import de.flori.chestShop.models.Shop;
+import de.flori.chestShop.storage.ShopSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Capacity-planning baseline for large worlds. Writes a synthetic shops.yml (regular and item-trading shops,
+ * clustered into shopping districts) and runs the import, saving, loading and the search commands against it.
+ * Every phase reports wall time, heap in use afterwards, peak heap and GC activity.
+ *
+ * <pre>
+ * java -Xmx8g -cp benchmarks/target/benchmarks.jar de.flori.chestShop.benchmarks.LoadGenerator 10000 100000 1000000
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+    private static final Material[] ITEMS = {
+            Material.DIAMOND, Material.IRON_INGOT, Material.GOLD_INGOT, Material.EMERALD, Material.NETHERITE_INGOT,
+            Material.COAL, Material.REDSTONE, Material.LAPIS_LAZULI, Material.QUARTZ, Material.GLOWSTONE_DUST,
+            Material.OAK_LOG, Material.SPRUCE_LOG, Material.STONE, Material.COBBLESTONE, Material.GLASS,
+            Material.SAND, Material.OBSIDIAN, Material.WHITE_WOOL, Material.BOOKSHELF, Material.TORCH,
+            Material.BREAD, Material.COOKED_BEEF, Material.GOLDEN_CARROT, Material.ARROW, Material.ENDER_PEARL,
+            Material.EXPERIENCE_BOTTLE, Material.SHULKER_BOX, Material.ELYTRA, Material.DIAMOND_SWORD, Material.DIAMOND_PICKAXE
+    };
+    private static final int SHOPS_PER_DISTRICT = 32;
+    private static final int SHOPS_PER_OWNER = 20;
+    private static final int WORLD_RADIUS = 20_000;
+    private static final double TRADING_SHARE = 0.1;
+    private static final int SEARCH_RUNS = 100;
+
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    private static void run(int shopCount) {
+        BenchmarkServer server = BenchmarkServer.start();
+        try {
+            ChestShopPlugin plugin = server.getPlugin();
+            ShopManager shopManager = plugin.getShopManager();
+            World world = server.getWorld();
+            File shopsFile = new File(plugin.getDataFolder(), "shops.yml");
+            deleteRecursively(new File(plugin.getDataFolder(), "shops"));
+
+            Report report = new Report(shopCount);
+            report.measure("generate shops.yml", 1, () -> writeShopsFile(shopsFile, shopCount, world.getName()));
+            report.measure("parse shops.yml", 1, () -> {
+                plugin.getConfigManager().reloadConfigs();
+                server.applyBenchmarkConfig();
+            });
+            report.measure("loadShops (import)", 1, shopManager::loadShops);
+            report.measure("write imported regions", 1, shopManager::awaitSaves);
+            report.measure("saveAllShops (all dirty)", 1, () -> {
+                for (Shop shop : shopManager.getAllShops()) {
+                    shop.markDirty();
+                }
+                shopManager.saveAllShops();
+            });
+            report.measure("write all regions", 1, shopManager::awaitSaves);
+            report.measure("loadShops (regions)", 1, shopManager::loadShops);
+            report.measure("getAllShops", SEARCH_RUNS, shopManager::getAllShops);
+
+            // Search commands as a player standing in the first district
+            QuietPlayer player = server.addPlayer("Searcher");
+            player.addAttachment(plugin, "chestshop.search", true);
+            Shop first = shopManager.getAllShops().getFirst();
+            player.teleport(first.getChestLocation().clone().add(0, 1, 0));
+            ChestShopCommand command = new ChestShopCommand(plugin);
+            report.measure("search item", SEARCH_RUNS, () -> search(command, player, "item", "DIAMOND"));
+            report.measure("search owner", SEARCH_RUNS, () -> search(command, player, "owner", first.getOwnerName()));
+            report.measure("search near", SEARCH_RUNS, () -> search(command, player, "near", first.getItem().name()));
+            report.measure("search price", SEARCH_RUNS, () -> search(command, player, "price", "10", "50", "buy"));
+
+            report.print(shopsFile.length());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void search(ChestShopCommand command, QuietPlayer player, String... args) {
+        String[] commandArgs = new String[args.length + 1];
+        commandArgs[0] = "search";
+        System.arraycopy(args, 0, commandArgs, 1, args.length);
+        command.onCommand(player, null, "chestshop", commandArgs);
+    }
+
+    /**
+     * Writes the shops in the shops.yml format one at a time, so the file never has to fit into a single YamlConfiguration
+     */
+    private static void writeShopsFile(File file, int shopCount, String worldName) {
+        SplittableRandom random = new SplittableRandom(42);
+        long now = System.currentTimeMillis();
+        int ownerCount = Math.max(1, shopCount / SHOPS_PER_OWNER);
+        UUID[] owners = new UUID[ownerCount];
+        for (int i = 0; i < ownerCount; i++) {
+            owners[i] = new UUID(0x5ec0ffeeL, i);
+        }
+
+        file.getParentFile().mkdirs();
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("shops:\n");
+            int districtX = 0;
+            int districtZ = 0;
+            for (int i = 0; i < shopCount; i++) {
+                int slot = i % SHOPS_PER_DISTRICT;
+                if (slot == 0) {
+                    districtX = random.nextInt(-WORLD_RADIUS, WORLD_RADIUS);
+                    districtZ = random.nextInt(-WORLD_RADIUS, WORLD_RADIUS);
+                }
+                // Chests two blocks apart in rows of eight, each sign in front of its chest
+                int x = districtX + (slot % 8) * 2;
+                int z = districtZ + (slot / 8) * 2;
+                int ownerIndex = random.nextInt(ownerCount);
+                long created = now - random.nextLong(90L * 24 * 60 * 60 * 1000);
+                boolean trading = random.nextDouble() < TRADING_SHARE;
+                Material item = ITEMS[random.nextInt(ITEMS.length)];
+                Material sellItem = ITEMS[random.nextInt(ITEMS.length)];
+                double buyPrice = random.nextInt(10) == 0 ? 0 : random.nextInt(1, 500);
+                double sellPrice = random.nextInt(3) == 0 ? 0 : Math.floor(buyPrice * 0.8);
+
+                ShopSnapshot snapshot = new ShopSnapshot(
+                        String.format("%08x", i),
+                        owners[ownerIndex],
+                        "Player" + ownerIndex,
+                        worldName, x, 64, z,
+                        worldName, x, 64, z + 1,
+                        item,
+                        random.nextInt(1, 65),
+                        trading ? 0 : buyPrice,
+                        trading ? 0 : sellPrice,
+                        random.nextInt(20) != 0,
+                        created,
+                        created + random.nextLong(now - created + 1),
+                        trading,
+                        trading ? item : null,
+                        trading ? random.nextInt(1, 65) : 0,
+                        trading ? sellItem : null,
+                        trading ? random.nextInt(1, 65) : 0,
+                        trading ? tradingMeta(item, i) : Map.of(),
+                        trading ? tradingMeta(sellItem, i) : Map.of());
+
+                YamlConfiguration yaml = new YamlConfiguration();
+                snapshot.writeTo(yaml.createSection(snapshot.id()));
+                for (String line : yaml.saveToString().split("\n")) {
+                    writer.write("  ");
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + file, e);
+        }
+    }
+
+    private static Map<String, Object> tradingMeta(Material item, int shopIndex) {
+        return Map.of(
+                "display-name", "&b" + item.name().toLowerCase().replace('_', ' '),
+                "lore", List.of("&7Traded at shop " + shopIndex, "&8Generated"),
+                "custom-model-data", 1000 + shopIndex % 50);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Measures phases and prints them as a table
+     */
+    private static class Report {
+
+        private final int shopCount;
+        private final StringBuilder rows = new StringBuilder();
+
+        private Report(int shopCount) {
+            this.shopCount = shopCount;
+        }
+
+        void measure(String phase, int runs, Runnable action) {
+            List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long gcCount = gcCount();
+            long gcTime = gcTime();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                action.run();
+            }
+            double millisPerRun = (System.nanoTime() - start) / 1_000_000.0 / runs;
+
+            // Sum of the per-pool peaks, an upper bound of the real peak
+            long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            long usedHeap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            rows.append(String.format("%-28s %6d %12.3f %10d %10d %8d %8d%n", phase, runs, millisPerRun,
+                    usedHeap >> 20, peakHeap >> 20, gcCount() - gcCount, gcTime() - gcTime));
+        }
+
+        void print(long shopsFileSize) {
+            System.out.printf("%n== %,d shops, shops.yml %,d KB ==%n", shopCount, shopsFileSize >> 10);
+            System.out.printf("%-28s %6s %12s %10s %10s %8s %8s%n",
+                    "phase", "runs", "ms/run", "heap MB", "peak MB", "gc", "gc ms");
+            System.out.print(rows);
+        }
+
+        private static long gcCount() {
+            long count = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+            }
+            return count;
+        }
+
+        private static long gcTime() {
+            long time = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                time += Math.max(0, gc.getCollectionTime());
+            }
+            return time;
+        }
+    }
+}
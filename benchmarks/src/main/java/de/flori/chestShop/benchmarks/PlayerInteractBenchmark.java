@@ -0,0 +1,97 @@
+package de.flori.chestShop.benchmarks;
+
+import de.flori.chestShop.listeners.ChestShopListener;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChestShopListener.onPlayerInteract, called for every block click on the server.
+ * Covers the early exits most clicks take and the shift-click preview of a shop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerInteractBenchmark {
+
+    private static final int SHOP_X = -1024;
+    private static final int SHOP_Z = -1024;
+
+    private BenchmarkServer server;
+    private ChestShopListener listener;
+    private PlayerInteractEvent clickWithoutShops;
+    private PlayerInteractEvent clickInShopChunk;
+    private PlayerInteractEvent offHandClickOnShop;
+    private PlayerInteractEvent previewShop;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        server.addBackgroundShops(10_000);
+        listener = new ChestShopListener(server.getPlugin());
+
+        World world = server.getWorld();
+        server.createStockedShop(SHOP_X, BenchmarkServer.SHOP_Y, SHOP_Z, Material.DIAMOND, 1, 9);
+        Block shopChest = world.getBlockAt(SHOP_X, BenchmarkServer.SHOP_Y, SHOP_Z);
+        Block nextToShop = world.getBlockAt(SHOP_X + 4, BenchmarkServer.SHOP_Y, SHOP_Z);
+        nextToShop.setType(Material.STONE);
+        Block farAway = world.getBlockAt(-4096, BenchmarkServer.SHOP_Y, -4096);
+        farAway.setType(Material.STONE);
+
+        Player player = server.addPlayer("Clicker");
+        QuietPlayer sneakingPlayer = server.addPlayer("Sneaker");
+        sneakingPlayer.setSneaking(true);
+
+        clickWithoutShops = click(player, farAway, EquipmentSlot.HAND);
+        clickInShopChunk = click(player, nextToShop, EquipmentSlot.HAND);
+        offHandClickOnShop = click(player, shopChest, EquipmentSlot.OFF_HAND);
+        previewShop = click(sneakingPlayer, shopChest, EquipmentSlot.HAND);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    private static PlayerInteractEvent click(Player player, Block block, EquipmentSlot hand) {
+        return new PlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK, null, block, BlockFace.UP, hand);
+    }
+
+    @Benchmark
+    public Event.Result clickWithoutShops() {
+        return handle(clickWithoutShops);
+    }
+
+    @Benchmark
+    public Event.Result clickInShopChunk() {
+        return handle(clickInShopChunk);
+    }
+
+    @Benchmark
+    public Event.Result offHandClickOnShop() {
+        return handle(offHandClickOnShop);
+    }
+
+    @Benchmark
+    public Event.Result previewShop() {
+        return handle(previewShop);
+    }
+
+    private Event.Result handle(PlayerInteractEvent event) {
+        event.setUseInteractedBlock(Event.Result.ALLOW);
+        listener.onPlayerInteract(event);
+        return event.useInteractedBlock();
+    }
+}
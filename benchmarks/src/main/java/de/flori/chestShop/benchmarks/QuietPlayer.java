@@ -0,0 +1,20 @@
+package de.flori.chestShop.benchmarks;
+
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+/**
+ * Mock player that drops chat messages. PlayerMock keeps every message for assertions,
+ * which would fill the heap over millions of benchmark operations.
+ */
+public class QuietPlayer extends PlayerMock {
+
+    public QuietPlayer(ServerMock server, String name) {
+        super(server, name);
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        // Rendered message is discarded
+    }
+}
@@ -0,0 +1,67 @@
+package de.flori.chestShop.benchmarks;
+
+import de.flori.chestShop.managers.ShopManager;
+import de.flori.chestShop.models.Shop;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShopManager.getShopByLocation, the lookup behind every click, hopper move and protection check
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShopLookupBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int shops;
+
+    private BenchmarkServer server;
+    private ShopManager shopManager;
+    private World world;
+    // Chest position of a shop in the middle of the grid
+    private int hitX;
+    private int hitZ;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        server.addBackgroundShops(shops);
+        shopManager = server.getPlugin().getShopManager();
+        world = server.getWorld();
+
+        int middle = shops / 2;
+        hitX = (middle % BenchmarkServer.GRID_WIDTH) * BenchmarkServer.SHOP_SPACING;
+        hitZ = (middle / BenchmarkServer.GRID_WIDTH) * BenchmarkServer.SHOP_SPACING;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public Shop chestHit() {
+        return shopManager.getShopByLocation(world, hitX, BenchmarkServer.SHOP_Y, hitZ);
+    }
+
+    @Benchmark
+    public Shop signHit() {
+        return shopManager.getShopByLocation(world, hitX, BenchmarkServer.SHOP_Y + 1, hitZ);
+    }
+
+    @Benchmark
+    public Shop missInShopChunk() {
+        return shopManager.getShopByLocation(world, hitX + 1, BenchmarkServer.SHOP_Y, hitZ);
+    }
+
+    @Benchmark
+    public Shop missFarAway() {
+        return shopManager.getShopByLocation(world, -50_000, BenchmarkServer.SHOP_Y, -50_000);
+    }
+}
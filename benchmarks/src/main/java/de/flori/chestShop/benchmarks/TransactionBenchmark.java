@@ -0,0 +1,62 @@
+package de.flori.chestShop.benchmarks;
+
+import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.models.Shop;
+import de.flori.chestShop.utils.TransactionUtil;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionUtil.handleBuyTransaction. Buying alone would empty the chest during warmup,
+ * so the round trip benchmarks sell the bought items back in the same operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionBenchmark {
+
+    private BenchmarkServer server;
+    private ChestShopPlugin plugin;
+    private Player buyer;
+    private Shop shop;
+    private Shop emptyShop;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = BenchmarkServer.start();
+        server.addBackgroundShops(10_000);
+        plugin = server.getPlugin();
+
+        shop = server.createStockedShop(-1024, BenchmarkServer.SHOP_Y, -1024, Material.DIAMOND, 16, 9);
+        emptyShop = server.createStockedShop(-1008, BenchmarkServer.SHOP_Y, -1024, Material.DIAMOND, 16, 0);
+        buyer = server.addPlayer("Buyer");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public void buyAndSellBack() {
+        TransactionUtil.handleBuyTransaction(buyer, shop, plugin);
+        TransactionUtil.handleSellTransaction(buyer, shop, plugin);
+    }
+
+    @Benchmark
+    public void bulkBuyAndSellBack() {
+        TransactionUtil.handleBuyTransaction(buyer, shop, 8, plugin);
+        TransactionUtil.handleSellTransaction(buyer, shop, 8, plugin);
+    }
+
+    @Benchmark
+    public void buyOutOfStock() {
+        TransactionUtil.handleBuyTransaction(buyer, emptyShop, plugin);
+    }
+}
@@ -1,10 +1,16 @@
 package de.flori.chestShop;
 
 import de.flori.chestShop.commands.ChestShopCommand;
+import de.flori.chestShop.config.ChestShopSettings;
+import de.flori.chestShop.config.MessageCatalog;
 import de.flori.chestShop.config.ConfigManager;
 import de.flori.chestShop.config.ConfigMigrator;
+import de.flori.chestShop.holograms.DisplayEntityHologramSender;
+import de.flori.chestShop.holograms.HologramViewTracker;
+import de.flori.chestShop.holograms.HologramWorkQueue;
 import de.flori.chestShop.listeners.ChestShopListener;
 import de.flori.chestShop.managers.ShopManager;
+import de.flori.chestShop.managers.ShopRefreshScheduler;
 import de.flori.chestShop.utils.EconomyManager;
 import de.flori.chestShop.utils.HologramUtil;
 import de.flori.chestShop.utils.NotificationUtil;
@@ -18,8 +24,14 @@ public class ChestShopPlugin extends JavaPlugin {
     private static ChestShopPlugin instance;
     private ConfigManager configManager;
     private ShopManager shopManager;
+    private ShopRefreshScheduler refreshScheduler;
+    private HologramViewTracker hologramViewTracker;
+    private HologramWorkQueue hologramWorkQueue;
     private EconomyManager economyManager;
     private Economy economy;
+    // Typed snapshot of config.yml, replaced as a whole on reload
+    private volatile ChestShopSettings settings;
+    private MessageCatalog messages;
 
     @Override
     public void onEnable() {
@@ -45,21 +57,31 @@ public class ChestShopPlugin extends JavaPlugin {
             // Reload configs after migration
             configManager.loadConfigs();
         }
+        reloadSettings();
+        messages = new MessageCatalog(this);
 
         // Initialize economy manager first
         economyManager = new EconomyManager(economy);
         
-        // Delay shop manager initialization until worlds are loaded
-        getServer().getScheduler().runTaskLater(this, () -> {
-            getLogger().info("Initializing shops after world loading...");
-            shopManager = new ShopManager(this);
-            
-            // Initialize holograms after ShopManager is ready
-            getServer().getScheduler().runTaskLater(this, () -> {
-                getLogger().info("Initializing holograms...");
-                HologramUtil.initializeAllHolograms(this);
-            }, 20L); // Wait another 1 second for ShopManager to fully initialize
-        }, 20L); // Wait 1 second (20 ticks)
+        // Shops in worlds that are not loaded yet are bound on WorldLoadEvent
+        shopManager = new ShopManager(this);
+        
+        // Sign and hologram refreshes are batched once per interval
+        refreshScheduler = new ShopRefreshScheduler(this);
+        refreshScheduler.start();
+        
+        // Virtual holograms (holograms.mode: virtual) are sent to the players in range
+        hologramViewTracker = new HologramViewTracker(this, new DisplayEntityHologramSender(this));
+        hologramViewTracker.start();
+        
+        // Bulk hologram work runs under a per-tick time budget
+        hologramWorkQueue = new HologramWorkQueue(this);
+        
+        // Runs on the first server tick, after the startup worlds have been loaded
+        getServer().getScheduler().runTask(this, () -> {
+            getLogger().info("Initializing holograms...");
+            HologramUtil.initializeAllHolograms(this);
+        });
 
         // Register commands (modern Paper method)
         ChestShopCommand commandExecutor = new ChestShopCommand(this);
@@ -81,12 +103,18 @@ public class ChestShopPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        // Write pending sign updates
+        if (refreshScheduler != null) {
+            refreshScheduler.stop();
+        }
+        
         // Remove all holograms first
         HologramUtil.removeAllHolograms();
         getLogger().info("Holograms removed");
         
         if (shopManager != null) {
-            shopManager.saveAllShops();
+            // Saves pending changes and waits for the save thread to finish
+            shopManager.shutdown();
         }
         
         getLogger().info("ChestShop Plugin disabled!");
@@ -145,6 +173,36 @@ public class ChestShopPlugin extends JavaPlugin {
         return shopManager;
     }
 
+    public ChestShopSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Rebuilds the settings snapshot, call after every change of the configuration
+     */
+    public void reloadSettings() {
+        settings = ChestShopSettings.load(configManager.getConfig());
+    }
+
+    /**
+     * Compiled messages for chat-heavy paths, getConfigManager().getMessage() stays available for the rest
+     */
+    public MessageCatalog getMessages() {
+        return messages;
+    }
+
+    public ShopRefreshScheduler getRefreshScheduler() {
+        return refreshScheduler;
+    }
+
+    public HologramViewTracker getHologramViewTracker() {
+        return hologramViewTracker;
+    }
+
+    public HologramWorkQueue getHologramWorkQueue() {
+        return hologramWorkQueue;
+    }
+
     public EconomyManager getEconomyManager() {
         return economyManager;
     }
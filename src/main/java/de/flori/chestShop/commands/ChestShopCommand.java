@@ -4,8 +4,10 @@ import de.flori.chestShop.ChestShopPlugin;
 import de.flori.chestShop.models.Shop;
 import de.flori.chestShop.utils.SignUtil;
 import de.flori.chestShop.utils.StatisticsUtil;
+import de.flori.chestShop.utils.TextTemplate;
 import de.flori.chestShop.utils.HologramUtil;
 import de.flori.chestShop.utils.TradingUtil;
+import de.flori.chestShop.utils.TransactionUtil;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -71,6 +73,10 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
                 return handleStats(sender, args);
             case "price":
                 return handlePrice(sender, args);
+            case "buy":
+                return handleBulkTrade(sender, args, true);
+            case "sell":
+                return handleBulkTrade(sender, args, false);
             case "admin":
                 return handleAdmin(sender, args);
             case "item":
@@ -353,7 +359,17 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
         }
 
         plugin.getConfigManager().reloadConfigs();
+        // Formats are compiled again on first use
+        TextTemplate.clearCache();
+        plugin.reloadSettings();
+        plugin.getMessages().clear();
+        // Persist pending changes first, loadShops() replays the shop store
+        plugin.getShopManager().saveAllShops();
         plugin.getShopManager().loadShops();
+        plugin.getRefreshScheduler().start();
+        plugin.getHologramViewTracker().start();
+        // Changed formats reach the spawned holograms over the next ticks
+        HologramUtil.refreshAllHolograms(plugin);
         sender.sendMessage(plugin.getConfigManager().getMessage("general.config-reloaded"));
         return true;
     }
@@ -391,6 +407,7 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
         }
 
         shop.setActive(!shop.isActive());
+        plugin.getShopManager().reindexShop(shop);
         SignUtil.updateShopSign(shop, plugin);
 
         String status = shop.isActive() ? 
@@ -491,10 +508,14 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
         }
 
         // Items zur Shop-Truhe hinzufügen
-        Chest chest = shop.getChest();
-        if (chest != null) {
+        org.bukkit.inventory.Inventory chestInventory = shop.getChestInventory();
+        if (chestInventory != null) {
             org.bukkit.inventory.ItemStack shopItem = new org.bukkit.inventory.ItemStack(shop.getItem(), refillAmount);
-            chest.getInventory().addItem(shopItem);
+            if (chestInventory.addItem(shopItem).isEmpty()) {
+                shop.applyInventoryChange(shop.getItem(), refillAmount);
+            } else {
+                shop.invalidateInventoryCounts();
+            }
         }
 
         // Schild aktualisieren
@@ -552,6 +573,23 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
                 results = StatisticsUtil.searchShopsByOwner(args[2], plugin);
                 break;
                 
+            case "near":
+                if (args.length < 3) {
+                    player.sendMessage(plugin.getConfigManager().getMessage("commands.usage.search"));
+                    return true;
+                }
+                try {
+                    Material item = Material.valueOf(args[2].toUpperCase());
+                    double maxDistance = player.hasPermission("chestshop.search.unlimited") ? Double.MAX_VALUE
+                        : plugin.getConfigManager().getConfig().getDouble("search.max-distance", 500);
+                    int limit = plugin.getConfigManager().getConfig().getInt("search.max-results", 10);
+                    results = StatisticsUtil.getNearestShopsSelling(player.getLocation(), item, limit, maxDistance, plugin);
+                } catch (IllegalArgumentException e) {
+                    player.sendMessage(plugin.getConfigManager().getMessage("errors.item-not-found", "%item%", args[2]));
+                    return true;
+                }
+                break;
+                
             case "price":
                 if (args.length < 5) {
                     player.sendMessage(plugin.getConfigManager().getMessage("commands.usage.search"));
@@ -656,6 +694,90 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleBulkTrade(CommandSender sender, String[] args, boolean buy) {
+        if (!(sender instanceof Player)) {
+            sender.sendMessage(plugin.getConfigManager().getMessage("general.player-only"));
+            return true;
+        }
+
+        Player player = (Player) sender;
+        String usageKey = buy ? "commands.usage.buy" : "commands.usage.sell";
+
+        if (!player.hasPermission(buy ? "chestshop.buy" : "chestshop.sell")) {
+            player.sendMessage(plugin.getConfigManager().getMessage("general.no-permission"));
+            return true;
+        }
+
+        if (!plugin.getSettings().bulkTradingEnabled()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.bulk-disabled"));
+            return true;
+        }
+
+        // Anzahl Lots: Zahl oder "max" (so viele wie möglich)
+        int lots = TransactionUtil.ALL_LOTS;
+        if (args.length >= 2 && !args[1].equalsIgnoreCase("max")) {
+            try {
+                lots = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                player.sendMessage(plugin.getConfigManager().getMessage(usageKey));
+                return true;
+            }
+            if (lots <= 0) {
+                player.sendMessage(plugin.getConfigManager().getMessage(usageKey));
+                return true;
+            }
+        }
+
+        RayTraceResult rayTrace = player.rayTraceBlocks(5);
+        if (rayTrace == null || rayTrace.getHitBlock() == null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("shop.removal.not-shop"));
+            return true;
+        }
+
+        Block targetBlock = rayTrace.getHitBlock();
+        Shop shop = plugin.getShopManager().getShopByLocation(targetBlock.getLocation());
+        if (shop == null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("shop.removal.not-shop"));
+            return true;
+        }
+
+        if (shop.getOwnerId().equals(player.getUniqueId())) {
+            player.sendMessage(plugin.getConfigManager().getMessage(buy ? "shop.transaction.cannot-buy-own" : "shop.transaction.cannot-sell-own"));
+            return true;
+        }
+
+        if (plugin.getSettings().maintenanceMode() && !player.hasPermission("chestshop.admin")) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.maintenance-mode-enabled"));
+            return true;
+        }
+
+        if (!shop.isActive()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.shop-inactive"));
+            return true;
+        }
+
+        // Item-Trading-Shops handeln immer genau einen Tausch
+        if (shop.isItemTradingShop() && plugin.getSettings().itemTradingEnabled()) {
+            player.sendMessage(plugin.getConfigManager().getMessage(buy ? "interaction.no-buy-price" : "interaction.no-sell-price"));
+            return true;
+        }
+
+        if (buy) {
+            if (!shop.hasBuyPrice()) {
+                player.sendMessage(plugin.getConfigManager().getMessage("interaction.no-buy-price"));
+                return true;
+            }
+            TransactionUtil.handleBuyTransaction(player, shop, lots, plugin);
+        } else {
+            if (!shop.hasSellPrice()) {
+                player.sendMessage(plugin.getConfigManager().getMessage("interaction.no-sell-price"));
+                return true;
+            }
+            TransactionUtil.handleSellTransaction(player, shop, lots, plugin);
+        }
+        return true;
+    }
+
     private boolean handlePrice(CommandSender sender, String[] args) {
         if (!(sender instanceof Player)) {
             sender.sendMessage(plugin.getConfigManager().getMessage("general.player-only"));
@@ -710,6 +832,7 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
             // Update prices
             shop.setBuyPrice(newBuyPrice);
             shop.setSellPrice(newSellPrice);
+            plugin.getShopManager().reindexShop(shop);
 
             // Update sign
             SignUtil.updateShopSign(shop, plugin);
@@ -808,8 +931,8 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
     private boolean handleAdminHolograms(CommandSender sender, String action) {
         switch (action.toLowerCase()) {
             case "reload":
-                HologramUtil.recreateAllHolograms(plugin);
-                sender.sendMessage(plugin.getConfigManager().getMessage("admin.holograms-reloaded"));
+                // Reports progress and completion itself
+                HologramUtil.recreateAllHolograms(plugin, sender);
                 break;
                 
             case "remove":
@@ -891,6 +1014,7 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
         
         // Update config (in memory)
         plugin.getConfigManager().getConfig().set("general.maintenance-mode", newMode);
+        plugin.reloadSettings();
         
         // Notify
         if (newMode) {
@@ -1030,6 +1154,8 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(plugin.getConfigManager().getMessage("commands.help.list"));
         sender.sendMessage(plugin.getConfigManager().getMessage("commands.help.toggle"));
         sender.sendMessage(plugin.getConfigManager().getMessage("commands.help.refill"));
+        sender.sendMessage(plugin.getConfigManager().getMessage("commands.help.buy"));
+        sender.sendMessage(plugin.getConfigManager().getMessage("commands.help.sell"));
         
         if (sender.hasPermission("chestshop.admin")) {
             sender.sendMessage(plugin.getConfigManager().getMessage("commands.help.reload"));
@@ -1120,7 +1246,7 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("create", "remove", "info", "list", "toggle", "refill", "search", "stats", "price", "item", "help"));
+            completions.addAll(Arrays.asList("create", "remove", "info", "list", "toggle", "refill", "search", "stats", "price", "buy", "sell", "item", "help"));
             if (sender.hasPermission("chestshop.admin")) {
                 completions.addAll(Arrays.asList("reload", "admin", "debug"));
             }
@@ -1158,7 +1284,7 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
                     .collect(Collectors.toList());
         } else if (args.length == 2 && args[0].equalsIgnoreCase("search")) {
             // Search types
-            completions.addAll(Arrays.asList("item", "owner", "price"));
+            completions.addAll(Arrays.asList("item", "near", "owner", "price"));
         } else if (args.length == 3 && args[0].equalsIgnoreCase("admin")) {
             // Admin subcommand arguments
             if (sender.hasPermission("chestshop.admin")) {
@@ -1179,7 +1305,8 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
                     .map(Player::getName)
                     .filter(name -> name.toLowerCase().startsWith(args[2].toLowerCase()))
                     .collect(Collectors.toList());
-        } else if (args.length == 3 && args[0].equalsIgnoreCase("search") && args[1].equalsIgnoreCase("item")) {
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("search") 
+                && (args[1].equalsIgnoreCase("item") || args[1].equalsIgnoreCase("near"))) {
             // Material names for item search - avoid Material.isItem() to prevent initialization issues
             return Arrays.stream(Material.values())
                     .filter(m -> !m.name().contains("AIR") && m.name().length() > 0)
@@ -1219,6 +1346,8 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
         } else if (args.length == 5 && args[0].equalsIgnoreCase("search") && args[1].equalsIgnoreCase("price")) {
             // Price search type (buy/sell) 
             completions.addAll(Arrays.asList("buy", "sell"));
+        } else if (args.length == 2 && (args[0].equalsIgnoreCase("buy") || args[0].equalsIgnoreCase("sell"))) {
+            completions.addAll(Arrays.asList("max", "8", "16", "64"));
         }
 
         return completions.stream()
@@ -1789,7 +1918,7 @@ public class ChestShopCommand implements CommandExecutor, TabCompleter {
     private boolean handleDebugSave(Player player) {
         player.sendMessage("§eForce saving all shops...");
         plugin.getShopManager().saveAllShops();
-        player.sendMessage("§aShops saved!");
+        player.sendMessage("§aChanged shops queued for saving!");
         return true;
     }
     
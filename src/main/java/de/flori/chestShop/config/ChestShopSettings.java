@@ -0,0 +1,98 @@
+package de.flori.chestShop.config;
+
+import de.flori.chestShop.utils.TextTemplate;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+
+/**
+ * Immutable, typed snapshot of the config.yml values read on hot paths (clicks, hopper moves, transactions, sign renders).
+ * Built on enable and after every change of the configuration and replaced as a whole,
+ * so readers never see a half updated state. Rarely used values are still read from the configuration directly.
+ */
+public record ChestShopSettings(
+        boolean maintenanceMode,
+        boolean itemTradingEnabled,
+        boolean ownerFreeAccess,
+        boolean bulkTradingEnabled,
+        int bulkTradingMaxLots,
+        boolean bulkTradingSneakClick,
+        boolean protectionEnabled,
+        boolean onlyOwnerBreak,
+        boolean hopperProtection,
+        boolean allowOwnerInventoryAccess,
+        boolean protectNearbyBlocks,
+        boolean statisticsEnabled,
+        boolean logTransactions,
+        boolean debug,
+        boolean lowStockNotifications,
+        int lowStockThreshold,
+        boolean fullShopNotifications,
+        boolean hologramsEnabled,
+        boolean hologramShowText,
+        boolean hologramShowItem,
+        boolean hologramShowPrices,
+        boolean hologramsVirtual,
+        int hologramViewDistance,
+        long hologramViewUpdateInterval,
+        long hologramWorkBudgetNanos,
+        boolean hologramCleanupLegacy,
+        TextTemplate hologramTextFormat,
+        TextTemplate hologramTradingTextFormat,
+        TextTemplate hologramPriceFormat,
+        TextTemplate hologramTradingPriceFormat,
+        List<TextTemplate> signLines,
+        String colorActive,
+        String colorInactive,
+        String colorOutOfStock,
+        String colorOutOfSpace
+) {
+
+    public static ChestShopSettings load(ConfigurationSection config) {
+        return new ChestShopSettings(
+                config.getBoolean("general.maintenance-mode", false),
+                config.getBoolean("item-trading.enabled", false),
+                config.getBoolean("shop.behavior.owner-free-access"),
+                config.getBoolean("shop.behavior.bulk-trading.enabled", true),
+                config.getInt("shop.behavior.bulk-trading.max-lots", 64),
+                config.getBoolean("shop.behavior.bulk-trading.sneak-click", false),
+                config.getBoolean("protection.enabled"),
+                config.getBoolean("protection.only-owner-break"),
+                config.getBoolean("protection.hopper-protection"),
+                config.getBoolean("protection.allow-owner-inventory-access", true),
+                config.getBoolean("protection.protect-nearby-blocks", true),
+                config.getBoolean("statistics.enabled", true),
+                config.getBoolean("logging.log-transactions"),
+                config.getBoolean("logging.debug", false),
+                config.getBoolean("notifications.low-stock.enabled", true),
+                config.getInt("notifications.low-stock.threshold", 5),
+                config.getBoolean("notifications.full-shop.enabled", true),
+                config.getBoolean("holograms.enabled", true),
+                config.getBoolean("holograms.show-text", true),
+                config.getBoolean("holograms.show-item", true),
+                config.getBoolean("holograms.show-prices", true),
+                "virtual".equalsIgnoreCase(config.getString("holograms.mode", "entity")),
+                Math.max(1, config.getInt("holograms.view-distance", 24)),
+                Math.max(1, config.getLong("holograms.view-update-interval", 10)),
+                (long) (Math.max(0.1, config.getDouble("holograms.work-budget-ms", 2.0)) * 1_000_000),
+                config.getBoolean("holograms.cleanup-legacy", true),
+                TextTemplate.of(config.getString("holograms.text-format", "&6[ChestShop] &b%owner%")),
+                TextTemplate.of(config.getString("holograms.trading-text-format", "&9[ItemShop] &b%owner%")),
+                TextTemplate.of(config.getString("holograms.price-format", "&aBuy: %buy% &cSell: %sell%")),
+                TextTemplate.of(config.getString("holograms.trading-price-format",
+                        "&e%buy_amount%x %buy_item% &6-> &a%sell_amount%x %sell_item%")),
+                List.of(
+                        TextTemplate.of(config.getString("signs.format.line1", "&9[ChestShop]")),
+                        TextTemplate.of(config.getString("signs.format.line2", "&b%owner%")),
+                        TextTemplate.of(config.getString("signs.format.line3", "&a%amount% %item%")),
+                        TextTemplate.of(config.getString("signs.format.line4", "&eB: %buy% S: %sell%"))),
+                color(config, "signs.colors.active"),
+                color(config, "signs.colors.inactive"),
+                color(config, "signs.colors.out-of-stock"),
+                color(config, "signs.colors.out-of-space"));
+    }
+
+    private static String color(ConfigurationSection config, String key) {
+        return config.getString(key, "&a").replace("&", "§");
+    }
+}
@@ -0,0 +1,61 @@
+package de.flori.chestShop.config;
+
+import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.utils.TextTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Messages from messages.yml, resolved once per key through the ConfigManager and compiled into templates.
+ * Placeholder values are passed by name (without percent signs) to fixed-arity methods,
+ * so a message costs one map lookup and one StringBuilder pass. Cleared on reload. Main thread only.
+ */
+public class MessageCatalog {
+
+    private final ChestShopPlugin plugin;
+    private final Map<String, TextTemplate> templates = new HashMap<>();
+
+    public MessageCatalog(ChestShopPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public String get(String key) {
+        return template(key).render(null, null, null, null, null, null, null, null);
+    }
+
+    public String get(String key, String name, String value) {
+        return template(key).render(name, value, null, null, null, null, null, null);
+    }
+
+    public String get(String key, String name1, String value1, String name2, String value2) {
+        return template(key).render(name1, value1, name2, value2, null, null, null, null);
+    }
+
+    public String get(String key, String name1, String value1, String name2, String value2,
+                      String name3, String value3) {
+        return template(key).render(name1, value1, name2, value2, name3, value3, null, null);
+    }
+
+    public String get(String key, String name1, String value1, String name2, String value2,
+                      String name3, String value3, String name4, String value4) {
+        return template(key).render(name1, value1, name2, value2, name3, value3, name4, value4);
+    }
+
+    /**
+     * Drops all resolved messages, call after messages.yml was reloaded
+     */
+    public void clear() {
+        templates.clear();
+    }
+
+    private TextTemplate template(String key) {
+        TextTemplate template = templates.get(key);
+        if (template == null) {
+            // Without placeholder pairs the ConfigManager returns the colored message with its placeholders intact
+            template = TextTemplate.of(plugin.getConfigManager().getMessage(key));
+            templates.put(key, template);
+        }
+        return template;
+    }
+}
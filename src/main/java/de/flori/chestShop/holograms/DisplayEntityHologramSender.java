@@ -0,0 +1,144 @@
+package de.flori.chestShop.holograms;
+
+import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.utils.HologramUtil;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sends holograms with the Paper API only: display entities that are hidden by default and shown per player,
+ * so the server sends spawn and destroy packets only to the viewers. The entities exist only while
+ * at least one player is in range and are never saved with the chunk; entities discarded with an
+ * unloaded chunk are recreated on the next spawn.
+ * A packet-library implementation can replace this without server-side entities at all.
+ */
+public class DisplayEntityHologramSender implements HologramPacketSender {
+
+    private final ChestShopPlugin plugin;
+    private final Map<String, Displays> displays = new HashMap<>();
+
+    public DisplayEntityHologramSender(ChestShopPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void spawn(Player player, HologramContent hologram) {
+        Displays shopDisplays = displays.get(hologram.shopId());
+        if (shopDisplays != null && !shopDisplays.isValid()) {
+            // Discarded with their chunk, the other viewers get the new entities too
+            shopDisplays.remove();
+            Displays recreated = create(hologram);
+            recreated.viewers.addAll(shopDisplays.viewers);
+            displays.put(hologram.shopId(), recreated);
+            for (UUID viewerId : recreated.viewers) {
+                Player viewer = plugin.getServer().getPlayer(viewerId);
+                if (viewer != null) {
+                    show(viewer, recreated);
+                }
+            }
+            shopDisplays = recreated;
+        } else if (shopDisplays == null) {
+            shopDisplays = create(hologram);
+            displays.put(hologram.shopId(), shopDisplays);
+        }
+        shopDisplays.viewers.add(player.getUniqueId());
+        show(player, shopDisplays);
+    }
+
+    @Override
+    public void update(Player player, HologramContent hologram) {
+        Displays shopDisplays = displays.get(hologram.shopId());
+        if (shopDisplays == null || !shopDisplays.isValid()) {
+            // Stale entities are replaced on the next spawn
+            return;
+        }
+        // The entities are shared by all viewers, only the first call per change does anything
+        if (shopDisplays.text != null && hologram.text() != null && !hologram.text().equals(shopDisplays.text.getText())) {
+            shopDisplays.text.setText(hologram.text());
+        }
+        if (shopDisplays.item != null && hologram.item() != null) {
+            ItemStack current = shopDisplays.item.getItemStack();
+            if (current == null || current.getType() != hologram.item().getType() || current.getAmount() != hologram.item().getAmount()) {
+                shopDisplays.item.setItemStack(hologram.item());
+            }
+        }
+    }
+
+    @Override
+    public void destroy(Player player, String shopId) {
+        Displays shopDisplays = displays.get(shopId);
+        if (shopDisplays == null) {
+            return;
+        }
+        shopDisplays.viewers.remove(player.getUniqueId());
+        if (shopDisplays.viewers.isEmpty()) {
+            // Nobody is in range any more
+            displays.remove(shopId);
+            shopDisplays.remove();
+            return;
+        }
+        if (shopDisplays.text != null) {
+            player.hideEntity(plugin, shopDisplays.text);
+        }
+        if (shopDisplays.item != null) {
+            player.hideEntity(plugin, shopDisplays.item);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Displays shopDisplays : displays.values()) {
+            shopDisplays.remove();
+        }
+        displays.clear();
+    }
+
+    private void show(Player player, Displays shopDisplays) {
+        if (shopDisplays.text != null) {
+            player.showEntity(plugin, shopDisplays.text);
+        }
+        if (shopDisplays.item != null) {
+            player.showEntity(plugin, shopDisplays.item);
+        }
+    }
+
+    private static Displays create(HologramContent hologram) {
+        TextDisplay text = hologram.text() != null
+                ? HologramUtil.createTextDisplay(hologram.shopId(), hologram.textLocation(), hologram.text(), false) : null;
+        ItemDisplay item = hologram.item() != null
+                ? HologramUtil.createItemDisplay(hologram.shopId(), hologram.itemLocation(), hologram.item(), false) : null;
+        return new Displays(text, item);
+    }
+
+    private static class Displays {
+        private final TextDisplay text;
+        private final ItemDisplay item;
+        private final Set<UUID> viewers = new HashSet<>();
+
+        private Displays(TextDisplay text, ItemDisplay item) {
+            this.text = text;
+            this.item = item;
+        }
+
+        private boolean isValid() {
+            return (text == null || text.isValid()) && (item == null || item.isValid());
+        }
+
+        private void remove() {
+            if (text != null && !text.isDead()) {
+                text.remove();
+            }
+            if (item != null && !item.isDead()) {
+                item.remove();
+            }
+        }
+    }
+}
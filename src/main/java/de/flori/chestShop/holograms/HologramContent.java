@@ -0,0 +1,17 @@
+package de.flori.chestShop.holograms;
+
+import org.bukkit.Location;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * What the hologram of a shop shows and where: the text (info and price lines) and the floating item.
+ * Text or item are null when disabled in the config.
+ */
+public record HologramContent(
+        String shopId,
+        Location textLocation,
+        String text,
+        Location itemLocation,
+        ItemStack item
+) {
+}
@@ -0,0 +1,30 @@
+package de.flori.chestShop.holograms;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Shows shop holograms to single players. The {@link HologramViewTracker} decides who sees which hologram,
+ * implementations decide how it reaches the client. Calls happen on the main thread.
+ */
+public interface HologramPacketSender {
+
+    /**
+     * Shows the hologram to the player, who did not see it before
+     */
+    void spawn(Player player, HologramContent hologram);
+
+    /**
+     * Sends changed text or item to a player who sees the hologram
+     */
+    void update(Player player, HologramContent hologram);
+
+    /**
+     * Hides the hologram of the shop from the player
+     */
+    void destroy(Player player, String shopId);
+
+    /**
+     * Removes everything that was sent, for all players (plugin disable, mode change)
+     */
+    void clear();
+}
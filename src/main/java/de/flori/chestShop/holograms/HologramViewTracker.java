@@ -0,0 +1,143 @@
+package de.flori.chestShop.holograms;
+
+import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.config.ChestShopSettings;
+import de.flori.chestShop.models.Shop;
+import de.flori.chestShop.utils.HologramUtil;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * Virtual hologram mode (holograms.mode: virtual). Every holograms.view-update-interval ticks the shops within
+ * holograms.view-distance of each online player are looked up in the chunk index; holograms coming into range
+ * are sent to that player and holograms out of range are destroyed for them. Main thread only.
+ */
+public class HologramViewTracker {
+
+    private final ChestShopPlugin plugin;
+    private final HologramPacketSender sender;
+    // Shops whose hologram each player currently sees
+    private final Map<UUID, Set<String>> visibleShops = new HashMap<>();
+    private BukkitTask task;
+
+    public HologramViewTracker(ChestShopPlugin plugin, HologramPacketSender sender) {
+        this.plugin = plugin;
+        this.sender = sender;
+    }
+
+    /**
+     * (Re)starts tracking if virtual holograms are enabled, otherwise only clears what was sent
+     */
+    public void start() {
+        stop();
+        ChestShopSettings settings = plugin.getSettings();
+        if (!settings.hologramsEnabled() || !settings.hologramsVirtual()) {
+            return;
+        }
+        long interval = settings.hologramViewUpdateInterval();
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::updateViews, interval, interval);
+    }
+
+    /**
+     * Stops tracking and destroys all virtual holograms for all players
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        visibleShops.clear();
+        sender.clear();
+    }
+
+    public boolean isRunning() {
+        return task != null;
+    }
+
+    public void updateViews() {
+        if (plugin.getShopManager() == null) {
+            return;
+        }
+        int distance = plugin.getSettings().hologramViewDistance();
+        long maxDistanceSquared = (long) distance * distance;
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            Location location = player.getLocation();
+            int x = location.getBlockX();
+            int y = location.getBlockY();
+            int z = location.getBlockZ();
+            Set<String> visible = visibleShops.computeIfAbsent(player.getUniqueId(), id -> new HashSet<>());
+            Set<String> inRange = new HashSet<>();
+
+            for (Shop shop : plugin.getShopManager().getShopsNear(player.getWorld(), x, y, z, distance)) {
+                Location chest = shop.getChestLocation();
+                // Shops are indexed by chest and sign, the hologram is above the chest
+                if (chest == null || chest.getWorld() != player.getWorld()) continue;
+                // view-distance may exceed the server view distance, spawning must not load the chunk
+                if (!chest.getWorld().isChunkLoaded(chest.getBlockX() >> 4, chest.getBlockZ() >> 4)) continue;
+                long dx = chest.getBlockX() - x;
+                long dy = chest.getBlockY() - y;
+                long dz = chest.getBlockZ() - z;
+                if (dx * dx + dy * dy + dz * dz > maxDistanceSquared) continue;
+
+                inRange.add(shop.getId());
+                if (visible.add(shop.getId())) {
+                    sender.spawn(player, HologramUtil.buildContent(shop, plugin));
+                }
+            }
+
+            for (Iterator<String> iterator = visible.iterator(); iterator.hasNext(); ) {
+                String shopId = iterator.next();
+                if (!inRange.contains(shopId)) {
+                    iterator.remove();
+                    sender.destroy(player, shopId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the current content of the shop to everyone who sees it
+     */
+    public void updateShop(Shop shop) {
+        HologramContent content = null;
+        for (Map.Entry<UUID, Set<String>> entry : visibleShops.entrySet()) {
+            if (!entry.getValue().contains(shop.getId())) continue;
+            Player player = plugin.getServer().getPlayer(entry.getKey());
+            if (player == null) continue;
+            if (content == null) {
+                content = HologramUtil.buildContent(shop, plugin);
+            }
+            sender.update(player, content);
+        }
+    }
+
+    /**
+     * Destroys the hologram of a removed (or recreated) shop for everyone who sees it
+     */
+    public void removeShop(String shopId) {
+        for (Map.Entry<UUID, Set<String>> entry : visibleShops.entrySet()) {
+            if (!entry.getValue().remove(shopId)) continue;
+            Player player = plugin.getServer().getPlayer(entry.getKey());
+            if (player != null) {
+                sender.destroy(player, shopId);
+            }
+        }
+    }
+
+    /**
+     * Forgets everything the player sees (quit)
+     */
+    public void forgetPlayer(Player player) {
+        Set<String> visible = visibleShops.remove(player.getUniqueId());
+        if (visible == null) {
+            return;
+        }
+        for (String shopId : visible) {
+            sender.destroy(player, shopId);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package de.flori.chestShop.holograms;
+
+import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.index.ChunkKey;
+import de.flori.chestShop.models.Shop;
+import de.flori.chestShop.utils.HologramUtil;
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * Runs hologram jobs spread over several ticks: every tick jobs are processed until holograms.work-budget-ms
+ * is used up, so creating thousands of holograms no longer freezes the server. Each shop has at most one
+ * pending job (the last one submitted wins), jobs of shops near online players run first. Main thread only.
+ */
+public class HologramWorkQueue {
+
+    public enum Job { CREATE, UPDATE, REMOVE }
+
+    // Bulk progress is reported at most this often
+    private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+
+    private final ChestShopPlugin plugin;
+    private final Map<String, Job> nearJobs = new LinkedHashMap<>();
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private BukkitTask task;
+    private long budgetNanos;
+    // Progress of the current bulk submission, null if there is none
+    private Batch batch;
+
+    public HologramWorkQueue(ChestShopPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Queues a job for each shop, shops near online players are processed first
+     */
+    public void submitAll(Collection<Shop> shops, Job job) {
+        if (shops.isEmpty()) {
+            return;
+        }
+        Map<UUID, Set<Long>> nearChunks = chunksNearPlayers();
+        for (Shop shop : shops) {
+            enqueue(shop.getId(), job, isNear(shop, nearChunks));
+        }
+        ensureRunning();
+    }
+
+    /**
+     * Like {@link #submitAll(Collection, Job)}, reports the progress to the sender (console log if null)
+     * and runs onComplete once everything queued so far has been processed
+     */
+    public void submitAll(Collection<Shop> shops, Job job, CommandSender reporter, Runnable onComplete) {
+        submitAll(shops, job);
+        batch = new Batch(reporter, onComplete, pendingCount(), System.nanoTime());
+        if (batch.total == 0) {
+            finishBatch();
+        }
+    }
+
+    /**
+     * Queues the removal of a hologram by shop id (shops that no longer exist)
+     */
+    public void submitRemove(String shopId) {
+        enqueue(shopId, Job.REMOVE, false);
+        ensureRunning();
+    }
+
+    /**
+     * Drops all pending jobs without running them (plugin disable, holograms removed)
+     */
+    public void clear() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        nearJobs.clear();
+        jobs.clear();
+        batch = null;
+    }
+
+    public int pendingCount() {
+        return nearJobs.size() + jobs.size();
+    }
+
+    private void enqueue(String shopId, Job job, boolean near) {
+        Job previous = nearJobs.remove(shopId);
+        if (previous == null) {
+            previous = jobs.remove(shopId);
+        }
+        // A pending create already renders the current content
+        if (previous == Job.CREATE && job == Job.UPDATE) {
+            job = Job.CREATE;
+        }
+        (near ? nearJobs : jobs).put(shopId, job);
+    }
+
+    private void ensureRunning() {
+        if (task != null || pendingCount() == 0) {
+            return;
+        }
+        budgetNanos = plugin.getSettings().hologramWorkBudgetNanos();
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    private void tick() {
+        // At least one job per tick, so the queue always makes progress
+        long deadline = System.nanoTime() + budgetNanos;
+        do {
+            Map.Entry<String, Job> next = poll();
+            if (next == null) {
+                break;
+            }
+            run(next.getKey(), next.getValue());
+        } while (System.nanoTime() < deadline);
+
+        if (pendingCount() > 0) {
+            reportProgress();
+            return;
+        }
+        task.cancel();
+        task = null;
+        finishBatch();
+    }
+
+    private Map.Entry<String, Job> poll() {
+        Map<String, Job> queue = !nearJobs.isEmpty() ? nearJobs : jobs;
+        Iterator<Map.Entry<String, Job>> iterator = queue.entrySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        Map.Entry<String, Job> entry = iterator.next();
+        Map.Entry<String, Job> next = Map.entry(entry.getKey(), entry.getValue());
+        iterator.remove();
+        return next;
+    }
+
+    private void run(String shopId, Job job) {
+        if (job == Job.REMOVE) {
+            HologramUtil.removeShopHologram(shopId);
+            return;
+        }
+        // Shops removed in the meantime are skipped
+        Shop shop = plugin.getShopManager() != null ? plugin.getShopManager().getShop(shopId) : null;
+        if (shop == null) {
+            return;
+        }
+        try {
+            if (job == Job.CREATE) {
+                HologramUtil.createShopHologram(shop, plugin);
+            } else {
+                HologramUtil.updateShopHologram(shop, plugin);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to " + job.name().toLowerCase() + " hologram for shop " + shopId + ": " + e.getMessage());
+        }
+    }
+
+    private void reportProgress() {
+        if (batch == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - batch.lastReport < PROGRESS_INTERVAL_NANOS) {
+            return;
+        }
+        batch.lastReport = now;
+        // Jobs queued after the batch count as part of it
+        int done = Math.max(0, batch.total - pendingCount());
+        if (batch.reporter != null) {
+            batch.reporter.sendMessage(plugin.getConfigManager().getMessage("admin.holograms-progress",
+                "%done%", String.valueOf(done), "%total%", String.valueOf(batch.total)));
+        } else {
+            plugin.getLogger().info("Holograms: " + done + "/" + batch.total + " processed");
+        }
+    }
+
+    private void finishBatch() {
+        Batch finished = batch;
+        batch = null;
+        if (finished != null && finished.onComplete != null) {
+            finished.onComplete.run();
+        }
+    }
+
+    /**
+     * Chunk keys around every online player, per world, within the hologram view distance
+     */
+    private Map<UUID, Set<Long>> chunksNearPlayers() {
+        Map<UUID, Set<Long>> nearChunks = new HashMap<>();
+        int radius = (plugin.getSettings().hologramViewDistance() >> 4) + 1;
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            Location location = player.getLocation();
+            Set<Long> chunks = nearChunks.computeIfAbsent(player.getWorld().getUID(), id -> new HashSet<>());
+            int chunkX = location.getBlockX() >> 4;
+            int chunkZ = location.getBlockZ() >> 4;
+            for (int x = chunkX - radius; x <= chunkX + radius; x++) {
+                for (int z = chunkZ - radius; z <= chunkZ + radius; z++) {
+                    chunks.add(ChunkKey.pack(x, z));
+                }
+            }
+        }
+        return nearChunks;
+    }
+
+    private static boolean isNear(Shop shop, Map<UUID, Set<Long>> nearChunks) {
+        Location chest = shop.getChestLocation();
+        if (chest == null || chest.getWorld() == null) {
+            return false;
+        }
+        Set<Long> chunks = nearChunks.get(chest.getWorld().getUID());
+        return chunks != null && chunks.contains(ChunkKey.ofBlock(chest.getBlockX(), chest.getBlockZ()));
+    }
+
+    private static class Batch {
+        private final CommandSender reporter;
+        private final Runnable onComplete;
+        private final int total;
+        private long lastReport;
+
+        private Batch(CommandSender reporter, Runnable onComplete, int total, long startedAt) {
+            this.reporter = reporter;
+            this.onComplete = onComplete;
+            this.total = total;
+            this.lastReport = startedAt;
+        }
+    }
+}
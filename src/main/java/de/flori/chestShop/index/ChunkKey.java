@@ -0,0 +1,26 @@
+package de.flori.chestShop.index;
+
+/**
+ * Packs chunk coordinates into a single long (low 32 bits x, high 32 bits z)
+ */
+public final class ChunkKey {
+
+    private ChunkKey() {
+    }
+
+    public static long pack(int chunkX, int chunkZ) {
+        return ((long) chunkX & 0xFFFFFFFFL) | ((long) chunkZ << 32);
+    }
+
+    public static long ofBlock(int blockX, int blockZ) {
+        return pack(blockX >> 4, blockZ >> 4);
+    }
+
+    public static int x(long key) {
+        return (int) key;
+    }
+
+    public static int z(long key) {
+        return (int) (key >> 32);
+    }
+}
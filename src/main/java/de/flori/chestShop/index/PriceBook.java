@@ -0,0 +1,132 @@
+package de.flori.chestShop.index;
+
+import de.flori.chestShop.models.Shop;
+import org.bukkit.Material;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Active shop offers kept sorted by price.
+ * Per item the buy and sell side are ordered by unit price (price / amount),
+ * across all items by the raw price for range searches.
+ * Not thread safe, entries must be refreshed with {@link #update(Shop)} after a price or status change.
+ */
+public class PriceBook {
+
+    // Ties are broken by shop id; a search bound without shop sorts before all offers of its price
+    private static final Comparator<Offer> ORDER = Comparator.comparingDouble(Offer::price)
+            .thenComparing(offer -> offer.shop() != null ? offer.shop().getId() : "");
+
+    private final Map<Material, NavigableSet<Offer>> buyByItem = new EnumMap<>(Material.class);
+    private final Map<Material, NavigableSet<Offer>> sellByItem = new EnumMap<>(Material.class);
+    private final NavigableSet<Offer> buyByPrice = new TreeSet<>(ORDER);
+    private final NavigableSet<Offer> sellByPrice = new TreeSet<>(ORDER);
+
+    // Offers currently stored for a shop, needed to remove them after the shop changed
+    private final Map<String, Offer[]> offersByShop = new HashMap<>();
+
+    public void update(Shop shop) {
+        remove(shop.getId());
+
+        Material item = shop.getItem();
+        if (!shop.isActive() || item == null) {
+            return;
+        }
+
+        int amount = Math.max(1, shop.getAmount());
+        Offer[] offers = new Offer[4];
+        if (shop.hasBuyPrice()) {
+            offers[0] = new Offer(shop.getBuyPrice() / amount, shop, item);
+            offers[1] = new Offer(shop.getBuyPrice(), shop, item);
+            buyByItem.computeIfAbsent(item, key -> new TreeSet<>(ORDER)).add(offers[0]);
+            buyByPrice.add(offers[1]);
+        }
+        if (shop.hasSellPrice()) {
+            offers[2] = new Offer(shop.getSellPrice() / amount, shop, item);
+            offers[3] = new Offer(shop.getSellPrice(), shop, item);
+            sellByItem.computeIfAbsent(item, key -> new TreeSet<>(ORDER)).add(offers[2]);
+            sellByPrice.add(offers[3]);
+        }
+
+        if (offers[0] != null || offers[2] != null) {
+            offersByShop.put(shop.getId(), offers);
+        }
+    }
+
+    public void remove(String shopId) {
+        Offer[] offers = offersByShop.remove(shopId);
+        if (offers == null) {
+            return;
+        }
+        if (offers[0] != null) {
+            removeFromItem(buyByItem, offers[0]);
+            buyByPrice.remove(offers[1]);
+        }
+        if (offers[2] != null) {
+            removeFromItem(sellByItem, offers[2]);
+            sellByPrice.remove(offers[3]);
+        }
+    }
+
+    public void clear() {
+        buyByItem.clear();
+        sellByItem.clear();
+        buyByPrice.clear();
+        sellByPrice.clear();
+        offersByShop.clear();
+    }
+
+    /**
+     * Returns up to {@code limit} matching shops selling the item to players, cheapest unit price first
+     */
+    public List<Shop> cheapestBuy(Material item, int limit, Predicate<Shop> filter) {
+        NavigableSet<Offer> offers = buyByItem.get(item);
+        return offers != null ? collect(offers, limit, filter) : new ArrayList<>();
+    }
+
+    /**
+     * Returns up to {@code limit} matching shops buying the item from players, highest unit price first
+     */
+    public List<Shop> highestSell(Material item, int limit, Predicate<Shop> filter) {
+        NavigableSet<Offer> offers = sellByItem.get(item);
+        return offers != null ? collect(offers.descendingSet(), limit, filter) : new ArrayList<>();
+    }
+
+    /**
+     * Returns all shops whose buy (or sell) price lies within the range, cheapest first
+     */
+    public List<Shop> inPriceRange(double minPrice, double maxPrice, boolean buyPrice) {
+        if (minPrice > maxPrice) {
+            return new ArrayList<>();
+        }
+        NavigableSet<Offer> offers = buyPrice ? buyByPrice : sellByPrice;
+        List<Shop> result = new ArrayList<>();
+        for (Offer offer : offers.tailSet(new Offer(minPrice, null, null), true)) {
+            if (offer.price() > maxPrice) break;
+            result.add(offer.shop());
+        }
+        return result;
+    }
+
+    private static List<Shop> collect(Iterable<Offer> offers, int limit, Predicate<Shop> filter) {
+        List<Shop> result = new ArrayList<>(Math.min(limit, 16));
+        for (Offer offer : offers) {
+            if (result.size() >= limit) break;
+            if (filter.test(offer.shop())) {
+                result.add(offer.shop());
+            }
+        }
+        return result;
+    }
+
+    private static void removeFromItem(Map<Material, NavigableSet<Offer>> index, Offer offer) {
+        NavigableSet<Offer> offers = index.get(offer.item());
+        if (offers != null && offers.remove(offer) && offers.isEmpty()) {
+            index.remove(offer.item());
+        }
+    }
+
+    private record Offer(double price, Shop shop, Material item) {
+    }
+}
@@ -0,0 +1,194 @@
+package de.flori.chestShop.index;
+
+import de.flori.chestShop.models.Shop;
+import org.bukkit.Location;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Uniform grid over the chest positions of the shops of one world.
+ * Supports box, radius and k-nearest-neighbour queries; distances are compared squared.
+ * Not thread safe.
+ */
+public class ShopGrid {
+
+    // 2^6 = 64 blocks per cell (4x4 chunks)
+    private static final int CELL_SHIFT = 6;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private final LongObjectMap<List<Shop>> cells = new LongObjectMap<>();
+    private int size;
+
+    // Occupied cell range, only grows; bounds the ring search of nearest()
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellZ = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellZ = Integer.MIN_VALUE;
+
+    public void add(Shop shop) {
+        Location chest = shop.getChestLocation();
+        int cellX = chest.getBlockX() >> CELL_SHIFT;
+        int cellZ = chest.getBlockZ() >> CELL_SHIFT;
+        long key = ChunkKey.pack(cellX, cellZ);
+
+        List<Shop> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>(4);
+            cells.put(key, cell);
+        }
+        cell.add(shop);
+        size++;
+
+        minCellX = Math.min(minCellX, cellX);
+        minCellZ = Math.min(minCellZ, cellZ);
+        maxCellX = Math.max(maxCellX, cellX);
+        maxCellZ = Math.max(maxCellZ, cellZ);
+    }
+
+    public void remove(Shop shop) {
+        Location chest = shop.getChestLocation();
+        long key = ChunkKey.pack(chest.getBlockX() >> CELL_SHIFT, chest.getBlockZ() >> CELL_SHIFT);
+        List<Shop> cell = cells.get(key);
+        if (cell != null && cell.remove(shop)) {
+            size--;
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns all shops whose chest lies inside the box (inclusive block coordinates)
+     */
+    public List<Shop> inBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        List<Shop> result = new ArrayList<>();
+        for (int cellX = minX >> CELL_SHIFT; cellX <= maxX >> CELL_SHIFT; cellX++) {
+            for (int cellZ = minZ >> CELL_SHIFT; cellZ <= maxZ >> CELL_SHIFT; cellZ++) {
+                List<Shop> cell = cells.get(ChunkKey.pack(cellX, cellZ));
+                if (cell == null) continue;
+
+                for (Shop shop : cell) {
+                    Location chest = shop.getChestLocation();
+                    int x = chest.getBlockX();
+                    int y = chest.getBlockY();
+                    int z = chest.getBlockZ();
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                        result.add(shop);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns all matching shops within the radius, nearest first
+     */
+    public List<Shop> inRadius(double x, double y, double z, double radius, Predicate<Shop> filter) {
+        double radiusSquared = radius * radius;
+        int minCellX = (int) Math.floor(x - radius) >> CELL_SHIFT;
+        int maxCellX = (int) Math.floor(x + radius) >> CELL_SHIFT;
+        int minCellZ = (int) Math.floor(z - radius) >> CELL_SHIFT;
+        int maxCellZ = (int) Math.floor(z + radius) >> CELL_SHIFT;
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                List<Shop> cell = cells.get(ChunkKey.pack(cellX, cellZ));
+                if (cell == null) continue;
+
+                for (Shop shop : cell) {
+                    double distanceSquared = distanceSquared(shop, x, y, z);
+                    if (distanceSquared <= radiusSquared && filter.test(shop)) {
+                        candidates.add(new Candidate(shop, distanceSquared));
+                    }
+                }
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble(Candidate::distanceSquared));
+        List<Shop> result = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            result.add(candidate.shop());
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code limit} matching shops within {@code maxDistance}, nearest first.
+     * Cells are visited in rings around the center until no closer shop can follow.
+     */
+    public List<Shop> nearest(double x, double y, double z, int limit, double maxDistance, Predicate<Shop> filter) {
+        if (limit <= 0 || size == 0) {
+            return List.of();
+        }
+
+        double maxDistanceSquared = maxDistance * maxDistance;
+        int centerX = (int) Math.floor(x) >> CELL_SHIFT;
+        int centerZ = (int) Math.floor(z) >> CELL_SHIFT;
+        // Rings needed to cover both the occupied area and the max distance
+        int maxRing = Math.max(Math.max(Math.abs(centerX - minCellX), Math.abs(centerX - maxCellX)),
+                Math.max(Math.abs(centerZ - minCellZ), Math.abs(centerZ - maxCellZ)));
+        maxRing = (int) Math.min(maxRing, (long) (maxDistance / CELL_SIZE) + 1);
+
+        // Max heap on distance, the root is the current k-th nearest shop
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(Candidate::distanceSquared).reversed());
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Shops in this ring are at least (ring - 1) full cells away horizontally
+            if (best.size() == limit && ring > 0) {
+                double ringDistance = (double) (ring - 1) * CELL_SIZE;
+                if (ringDistance * ringDistance > best.peek().distanceSquared()) {
+                    break;
+                }
+            }
+
+            for (int cellX = centerX - ring; cellX <= centerX + ring; cellX++) {
+                boolean edgeColumn = cellX == centerX - ring || cellX == centerX + ring;
+                // Inner columns only contribute their top and bottom cell
+                int step = edgeColumn ? 1 : Math.max(1, 2 * ring);
+                for (int cellZ = centerZ - ring; cellZ <= centerZ + ring; cellZ += step) {
+                    List<Shop> cell = cells.get(ChunkKey.pack(cellX, cellZ));
+                    if (cell == null) continue;
+
+                    for (Shop shop : cell) {
+                        double distanceSquared = distanceSquared(shop, x, y, z);
+                        if (distanceSquared > maxDistanceSquared) continue;
+                        if (best.size() == limit && distanceSquared >= best.peek().distanceSquared()) continue;
+                        if (!filter.test(shop)) continue;
+
+                        best.add(new Candidate(shop, distanceSquared));
+                        if (best.size() > limit) {
+                            best.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(best);
+        sorted.sort(Comparator.comparingDouble(Candidate::distanceSquared));
+        List<Shop> result = new ArrayList<>(sorted.size());
+        for (Candidate candidate : sorted) {
+            result.add(candidate.shop());
+        }
+        return result;
+    }
+
+    private static double distanceSquared(Shop shop, double x, double y, double z) {
+        Location chest = shop.getChestLocation();
+        double dx = chest.getX() - x;
+        double dy = chest.getY() - y;
+        double dz = chest.getZ() - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private record Candidate(Shop shop, double distanceSquared) {
+    }
+}
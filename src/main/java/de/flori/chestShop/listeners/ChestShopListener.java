@@ -1,25 +1,37 @@
 package de.flori.chestShop.listeners;
 
 import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.config.ChestShopSettings;
 import de.flori.chestShop.models.Shop;
+import de.flori.chestShop.utils.HologramUtil;
 import de.flori.chestShop.utils.SignUtil;
 import de.flori.chestShop.utils.TransactionUtil;
 import de.flori.chestShop.utils.TradingUtil;
-import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.Chest;
-import org.bukkit.block.Hopper;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.inventory.InventoryMoveItemEvent;
 import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.inventory.DoubleChestInventory;
 import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.Inventory;
 
 public class ChestShopListener implements Listener {
 
@@ -29,6 +41,16 @@ public class ChestShopListener implements Listener {
         this.plugin = plugin;
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        for (Shop shop : plugin.getShopManager().bindWorld(event.getWorld())) {
+            // Worlds loaded during startup get their holograms from initializeAllHolograms
+            if (HologramUtil.isInitialized()) {
+                HologramUtil.createShopHologram(shop, plugin);
+            }
+        }
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerInteract(PlayerInteractEvent event) {
         if (event.getHand() != EquipmentSlot.HAND) {
@@ -40,7 +62,12 @@ public class ChestShopListener implements Listener {
             return;
         }
 
-        Shop shop = plugin.getShopManager().getShopByLocation(clickedBlock.getLocation());
+        // Most clicks happen in chunks without any shop
+        if (!plugin.getShopManager().hasShopsInChunk(clickedBlock.getWorld(), clickedBlock.getX() >> 4, clickedBlock.getZ() >> 4)) {
+            return;
+        }
+
+        Shop shop = plugin.getShopManager().getShopByLocation(clickedBlock.getWorld(), clickedBlock.getX(), clickedBlock.getY(), clickedBlock.getZ());
         if (shop == null) {
             return;
         }
@@ -48,16 +75,21 @@ public class ChestShopListener implements Listener {
         Player player = event.getPlayer();
         event.setCancelled(true);
 
-        // Informationen anzeigen bei Shift-Klick
-        if (player.isSneaking()) {
+        // Informationen anzeigen bei Shift-Klick, außer Shift-Klick ist als Bulk-Handel eingestellt.
+        // Owner und Trading-Shops handeln nie in Lots und behalten die Vorschau
+        ChestShopSettings settings = plugin.getSettings();
+        boolean bulkClick = player.isSneaking() && settings.bulkTradingEnabled() && settings.bulkTradingSneakClick()
+                && !shop.getOwnerId().equals(player.getUniqueId())
+                && !(settings.itemTradingEnabled() && shop.isItemTradingShop());
+        if (player.isSneaking() && !bulkClick) {
             showShopPreview(player, shop);
             return;
         }
+        int lots = bulkClick ? TransactionUtil.ALL_LOTS : 1;
 
         // Shop-Owner Zugriff prüfen
         if (shop.getOwnerId().equals(player.getUniqueId())) {
-            boolean ownerFreeAccess = plugin.getConfigManager().getConfig().getBoolean("shop.behavior.owner-free-access");
-            if (ownerFreeAccess) {
+            if (settings.ownerFreeAccess()) {
                 // Owner kann frei auf Chest zugreifen
                 return;
             } else {
@@ -67,8 +99,7 @@ public class ChestShopListener implements Listener {
         }
 
         // Wartungsmodus prüfen
-        boolean maintenanceMode = plugin.getConfigManager().getConfig().getBoolean("general.maintenance-mode", false);
-        if (maintenanceMode && !player.hasPermission("chestshop.admin")) {
+        if (settings.maintenanceMode() && !player.hasPermission("chestshop.admin")) {
             player.sendMessage(plugin.getConfigManager().getMessage("admin.maintenance-mode-enabled"));
             return;
         }
@@ -80,7 +111,7 @@ public class ChestShopListener implements Listener {
         }
 
         // Prüfen ob Item-Trading aktiviert ist
-        boolean itemTradingEnabled = plugin.getConfigManager().getConfig().getBoolean("item-trading.enabled", false);
+        boolean itemTradingEnabled = settings.itemTradingEnabled();
         
         switch (event.getAction()) {
             case LEFT_CLICK_BLOCK:
@@ -89,7 +120,7 @@ public class ChestShopListener implements Listener {
                     // Item-Trading: Linksklick = Vorschau anzeigen
                     TradingUtil.showTradingPreview(player, shop, plugin);
                 } else if (shop.hasBuyPrice()) {
-                    TransactionUtil.handleBuyTransaction(player, shop, plugin);
+                    TransactionUtil.handleBuyTransaction(player, shop, lots, plugin);
                 } else {
                     player.sendMessage(plugin.getConfigManager().getMessage("interaction.no-buy-price"));
                 }
@@ -101,7 +132,7 @@ public class ChestShopListener implements Listener {
                     // Item-Trading: Rechtsklick = Tauschen
                     TradingUtil.executeTrade(player, shop, plugin);
                 } else if (shop.hasSellPrice()) {
-                    TransactionUtil.handleSellTransaction(player, shop, plugin);
+                    TransactionUtil.handleSellTransaction(player, shop, lots, plugin);
                 } else {
                     player.sendMessage(plugin.getConfigManager().getMessage("interaction.no-sell-price"));
                 }
@@ -114,19 +145,22 @@ public class ChestShopListener implements Listener {
         Player player = event.getPlayer();
         Block block = event.getBlock();
         
-        Shop shop = plugin.getShopManager().getShopByLocation(block.getLocation());
+        if (!plugin.getShopManager().hasShopsInChunk(block.getWorld(), block.getX() >> 4, block.getZ() >> 4)) {
+            return;
+        }
+
+        Shop shop = plugin.getShopManager().getShopByLocation(block.getWorld(), block.getX(), block.getY(), block.getZ());
         if (shop == null) {
             return;
         }
 
         // Prüfen ob Protection aktiviert ist
-        if (!plugin.getConfigManager().getConfig().getBoolean("protection.enabled")) {
+        if (!plugin.getSettings().protectionEnabled()) {
             return;
         }
 
         // Check if only owner can break shop blocks
-        boolean onlyOwnerBreak = plugin.getConfigManager().getConfig().getBoolean("protection.only-owner-break");
-        if (onlyOwnerBreak && !shop.getOwnerId().equals(player.getUniqueId()) && !player.hasPermission("chestshop.admin")) {
+        if (plugin.getSettings().onlyOwnerBreak() && !shop.getOwnerId().equals(player.getUniqueId()) && !player.hasPermission("chestshop.admin")) {
             event.setCancelled(true);
             player.sendMessage(plugin.getConfigManager().getMessage("protection.shop-protected"));
             return;
@@ -146,34 +180,134 @@ public class ChestShopListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onInventoryMoveItem(InventoryMoveItemEvent event) {
-        if (!plugin.getConfigManager().getConfig().getBoolean("protection.hopper-protection")) {
+        if (!plugin.getSettings().hopperProtection()) {
             return;
         }
 
+        Inventory source = event.getSource();
+        Inventory destination = event.getDestination();
+
         // Prüfen ob ein Hopper Items aus einem ChestShop entnimmt
-        if (event.getSource().getHolder() instanceof Chest) {
-            Chest chest = (Chest) event.getSource().getHolder();
-            Shop shop = plugin.getShopManager().getShopByLocation(chest.getLocation());
-            
-            if (shop != null && event.getDestination().getHolder() instanceof Hopper) {
+        if (destination.getType() == InventoryType.HOPPER && findShop(source) != null) {
+            event.setCancelled(true);
+            return;
+        }
+
+        // Prüfen ob ein Hopper Items in einen ChestShop einlegt (nur Items des Shop-Typs erlaubt)
+        if (source.getType() == InventoryType.HOPPER) {
+            Shop shop = findShop(destination);
+            if (shop != null && event.getItem().getType() != shop.getItem()) {
                 event.setCancelled(true);
             }
         }
+    }
 
-        // Prüfen ob ein Hopper Items in einen ChestShop einlegt
-        if (event.getDestination().getHolder() instanceof Chest) {
-            Chest chest = (Chest) event.getDestination().getHolder();
-            Shop shop = plugin.getShopManager().getShopByLocation(chest.getLocation());
-            
-            if (shop != null && event.getSource().getHolder() instanceof Hopper) {
-                // Erlaube das Einlegen von Items des Shop-Typs
-                Material shopItem = shop.getItem();
-                Material movingItem = event.getItem().getType();
-                
-                if (!movingItem.equals(shopItem)) {
-                    event.setCancelled(true);
-                }
-            }
+    /**
+     * Returns the shop whose chest holds the inventory, cheapest checks first:
+     * inventory type, then the chunk index, then the block key lookup. Both halves of a double chest are checked.
+     */
+    private Shop findShop(Inventory inventory) {
+        if (inventory.getType() != InventoryType.CHEST) {
+            return null;
+        }
+        if (inventory instanceof DoubleChestInventory doubleChest) {
+            Shop shop = findShop(doubleChest.getLeftSide());
+            return shop != null ? shop : findShop(doubleChest.getRightSide());
+        }
+        // Live block state, no snapshot of the chest contents
+        if (!(inventory.getHolder(false) instanceof Chest chest)) {
+            return null;
+        }
+
+        World world = chest.getWorld();
+        int x = chest.getX();
+        int z = chest.getZ();
+        if (!plugin.getShopManager().hasShopsInChunk(world, x >> 4, z >> 4)) {
+            return null;
+        }
+        return plugin.getShopManager().getShopByLocation(world, x, chest.getY(), z);
+    }
+
+    // Cached stock/space counts of a shop become invalid whenever its chest is changed outside a transaction
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onShopInventoryMove(InventoryMoveItemEvent event) {
+        invalidateShopCounts(event.getSource());
+        invalidateShopCounts(event.getDestination());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onShopInventoryClick(InventoryClickEvent event) {
+        invalidateShopCounts(event.getInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onShopInventoryDrag(InventoryDragEvent event) {
+        invalidateShopCounts(event.getInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onShopInventoryClose(InventoryCloseEvent event) {
+        invalidateShopCounts(event.getInventory());
+    }
+
+    private void invalidateShopCounts(Inventory inventory) {
+        Shop shop = findShop(inventory);
+        if (shop != null) {
+            shop.invalidateInventoryCounts();
+            // Stock colour on the sign may have changed
+            plugin.getRefreshScheduler().markDirty(shop);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getHologramViewTracker().forgetPlayer(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        // Startup chunks get their holograms from initializeAllHolograms
+        if (HologramUtil.isInitialized() && plugin.getShopManager().hasShopsInChunk(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ())) {
+            HologramUtil.loadChunkHolograms(event.getChunk(), plugin);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        // Stray hologram entities (and, once per chunk, legacy armor stands) are removed so they never pile up
+        HologramUtil.reconcileEntities(event.getChunk(), event.getEntities(), plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        // Cached inventory handles point to block entities that are gone after the unload
+        for (Shop shop : plugin.getShopManager().getShopsInChunk(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ())) {
+            shop.invalidateChestInventory();
+        }
+        HologramUtil.unloadChunkHolograms(event.getChunk(), plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChestPlace(BlockPlaceEvent event) {
+        invalidateAdjacentChests(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChestBreak(BlockBreakEvent event) {
+        invalidateAdjacentChests(event.getBlock());
+    }
+
+    /**
+     * A chest placed or broken next to a shop can turn it into a double chest or back
+     */
+    private void invalidateAdjacentChests(Block block) {
+        Material type = block.getType();
+        if (type != Material.CHEST && type != Material.TRAPPED_CHEST) {
+            return;
+        }
+        for (Shop shop : plugin.getShopManager().getShopsNear(block.getWorld(), block.getX(), block.getY(), block.getZ(), 1)) {
+            shop.invalidateChestInventory();
         }
     }
 
@@ -188,11 +322,11 @@ public class ChestShopListener implements Listener {
         // Prüfen ob es sich um eine Shop-Truhe handelt
         if (event.getInventory().getHolder() instanceof Chest) {
             Chest chest = (Chest) event.getInventory().getHolder();
-            Shop shop = plugin.getShopManager().getShopByLocation(chest.getLocation());
+            Shop shop = plugin.getShopManager().getShopByLocation(chest.getWorld(), chest.getX(), chest.getY(), chest.getZ());
             
             if (shop != null) {
                 // Nur Shop-Besitzer und Admins dürfen Truhe öffnen
-                boolean allowOwnerAccess = plugin.getConfigManager().getConfig().getBoolean("protection.allow-owner-inventory-access", true);
+                boolean allowOwnerAccess = plugin.getSettings().allowOwnerInventoryAccess();
                 
                 if (!allowOwnerAccess || (!shop.getOwnerId().equals(player.getUniqueId()) && !player.hasPermission("chestshop.admin"))) {
                     event.setCancelled(true);
@@ -213,109 +347,102 @@ public class ChestShopListener implements Listener {
         Player player = event.getPlayer();
         Block block = event.getBlock();
         
-        // Prüfen ob Block neben einem Shop platziert wird
-        for (int x = -1; x <= 1; x++) {
-            for (int y = -1; y <= 1; y++) {
-                for (int z = -1; z <= 1; z++) {
-                    if (x == 0 && y == 0 && z == 0) continue;
-                    
-                    Location checkLoc = block.getLocation().clone().add(x, y, z);
-                    Shop shop = plugin.getShopManager().getShopByLocation(checkLoc);
-                    
-                    if (shop != null) {
-                        // Prüfen ob Protection für Block-Platzierung aktiviert ist
-                        boolean protectNearby = plugin.getConfigManager().getConfig().getBoolean("protection.protect-nearby-blocks", true);
-                        
-                        if (protectNearby && !shop.getOwnerId().equals(player.getUniqueId()) && !player.hasPermission("chestshop.admin")) {
-                            // Bestimmte Blöcke sind gefährlich (wie Hopper)
-                            if (block.getType() == Material.HOPPER || 
-                                block.getType() == Material.DROPPER || 
-                                block.getType() == Material.DISPENSER ||
-                                block.getType() == Material.PISTON ||
-                                block.getType() == Material.STICKY_PISTON ||
-                                block.getType() == Material.TNT) {
-                                
-                                event.setCancelled(true);
-                                player.sendMessage(plugin.getConfigManager().getMessage("protection.no-place-near-shop"));
-                                return;
-                            }
-                        }
-                    }
-                }
+        // Nur gefährliche Blöcke (wie Hopper) sind neben fremden Shops verboten
+        Material type = block.getType();
+        if (type != Material.HOPPER && 
+            type != Material.DROPPER && 
+            type != Material.DISPENSER &&
+            type != Material.PISTON &&
+            type != Material.STICKY_PISTON &&
+            type != Material.TNT) {
+            return;
+        }
+
+        // Prüfen ob Protection für Block-Platzierung aktiviert ist
+        if (!plugin.getSettings().protectNearbyBlocks() || player.hasPermission("chestshop.admin")) {
+            return;
+        }
+        
+        // Prüfen ob Block neben einem Shop platziert wird (nur die angrenzenden Chunks werden durchsucht)
+        for (Shop shop : plugin.getShopManager().getShopsNear(block.getWorld(), block.getX(), block.getY(), block.getZ(), 1)) {
+            if (!shop.getOwnerId().equals(player.getUniqueId())) {
+                event.setCancelled(true);
+                player.sendMessage(plugin.getConfigManager().getMessage("protection.no-place-near-shop"));
+                return;
             }
         }
     }
 
     private void showShopPreview(Player player, Shop shop) {
-        boolean itemTradingEnabled = plugin.getConfigManager().getConfig().getBoolean("item-trading.enabled", false);
+        boolean itemTradingEnabled = plugin.getSettings().itemTradingEnabled();
         
         if (itemTradingEnabled && shop.isItemTradingShop()) {
             // Trading Shop Preview
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.shop-info.header"));
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.shop-info.owner", "%owner%", shop.getOwnerName()));
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.shop-info.buy-item", 
-                "%amount%", String.valueOf(shop.getBuyItemAmount()),
-                "%item%", shop.getBuyItem().name()));
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.shop-info.sell-item", 
-                "%amount%", String.valueOf(shop.getSellItemAmount()),
-                "%item%", shop.getSellItem().name()));
+            player.sendMessage(plugin.getMessages().get("item-trading.shop-info.header"));
+            player.sendMessage(plugin.getMessages().get("item-trading.shop-info.owner", "owner", shop.getOwnerName()));
+            player.sendMessage(plugin.getMessages().get("item-trading.shop-info.buy-item", 
+                "amount", String.valueOf(shop.getBuyItemAmount()),
+                "item", shop.getBuyItem().name()));
+            player.sendMessage(plugin.getMessages().get("item-trading.shop-info.sell-item", 
+                "amount", String.valueOf(shop.getSellItemAmount()),
+                "item", shop.getSellItem().name()));
             
             // Stock information
             int stockGiving = shop.getTradingStockForGiving();
             int stockReceiving = shop.getTradingStockForReceiving();
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.shop-info.stock-buy", 
-                "%stock%", String.valueOf(stockGiving)));
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.shop-info.stock-sell", 
-                "%stock%", String.valueOf(stockReceiving)));
+            player.sendMessage(plugin.getMessages().get("item-trading.shop-info.stock-buy", 
+                "stock", String.valueOf(stockGiving)));
+            player.sendMessage(plugin.getMessages().get("item-trading.shop-info.stock-sell", 
+                "stock", String.valueOf(stockReceiving)));
             
             // Trading rate
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.shop-info.trading-rate", 
-                "%buy_amount%", String.valueOf(shop.getBuyItemAmount()),
-                "%buy_item%", shop.getBuyItem().name(),
-                "%sell_amount%", String.valueOf(shop.getSellItemAmount()),
-                "%sell_item%", shop.getSellItem().name()));
+            player.sendMessage(plugin.getMessages().get("item-trading.shop-info.trading-rate", 
+                "buy_amount", String.valueOf(shop.getBuyItemAmount()),
+                "buy_item", shop.getBuyItem().name(),
+                "sell_amount", String.valueOf(shop.getSellItemAmount()),
+                "sell_item", shop.getSellItem().name()));
             
             // Interaction hints
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.interaction.left-click-info",
-                "%buy_amount%", String.valueOf(shop.getBuyItemAmount()),
-                "%buy_item%", shop.getBuyItem().name(),
-                "%sell_amount%", String.valueOf(shop.getSellItemAmount()),
-                "%sell_item%", shop.getSellItem().name()));
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.interaction.right-click-trade"));
+            player.sendMessage(plugin.getMessages().get("item-trading.interaction.left-click-info",
+                "buy_amount", String.valueOf(shop.getBuyItemAmount()),
+                "buy_item", shop.getBuyItem().name(),
+                "sell_amount", String.valueOf(shop.getSellItemAmount()),
+                "sell_item", shop.getSellItem().name()));
+            player.sendMessage(plugin.getMessages().get("item-trading.interaction.right-click-trade"));
             
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.shop-info.status", "%status%", getStatusMessage(shop)));
-            player.sendMessage(plugin.getConfigManager().getMessage("item-trading.shop-info.footer"));
+            player.sendMessage(plugin.getMessages().get("item-trading.shop-info.status", "status", getStatusMessage(shop)));
+            player.sendMessage(plugin.getMessages().get("item-trading.shop-info.footer"));
             
         } else {
             // Normal Shop Preview
-            player.sendMessage(plugin.getConfigManager().getMessage("shop.preview.header"));
-            player.sendMessage(plugin.getConfigManager().getMessage("shop.preview.owner", "%owner%", shop.getOwnerName()));
-            player.sendMessage(plugin.getConfigManager().getMessage("shop.preview.item", 
-                "%amount%", String.valueOf(shop.getAmount()),
-                "%item%", shop.getItem().name()));
+            player.sendMessage(plugin.getMessages().get("shop.preview.header"));
+            player.sendMessage(plugin.getMessages().get("shop.preview.owner", "owner", shop.getOwnerName()));
+            player.sendMessage(plugin.getMessages().get("shop.preview.item", 
+                "amount", String.valueOf(shop.getAmount()),
+                "item", shop.getItem().name()));
             
             if (shop.hasBuyPrice() && shop.canBuy(shop.getAmount())) {
-                player.sendMessage(plugin.getConfigManager().getMessage("interaction.left-click-buy",
-                    "%amount%", String.valueOf(shop.getAmount()),
-                    "%item%", shop.getItem().name(),
-                    "%price%", plugin.getEconomyManager().format(shop.getBuyPrice())));
+                player.sendMessage(plugin.getMessages().get("interaction.left-click-buy",
+                    "amount", String.valueOf(shop.getAmount()),
+                    "item", shop.getItem().name(),
+                    "price", plugin.getEconomyManager().format(shop.getBuyPrice())));
             }
             
             if (shop.hasSellPrice() && shop.canSell(shop.getAmount())) {
-                player.sendMessage(plugin.getConfigManager().getMessage("interaction.right-click-sell",
-                    "%amount%", String.valueOf(shop.getAmount()),
-                    "%item%", shop.getItem().name(),
-                    "%price%", plugin.getEconomyManager().format(shop.getSellPrice())));
+                player.sendMessage(plugin.getMessages().get("interaction.right-click-sell",
+                    "amount", String.valueOf(shop.getAmount()),
+                    "item", shop.getItem().name(),
+                    "price", plugin.getEconomyManager().format(shop.getSellPrice())));
             }
             
-            player.sendMessage(plugin.getConfigManager().getMessage("shop.preview.stock", "%stock%", String.valueOf(shop.getStock())));
-            player.sendMessage(plugin.getConfigManager().getMessage("shop.preview.status", "%status%", getStatusMessage(shop)));
-            player.sendMessage(plugin.getConfigManager().getMessage("shop.preview.footer"));
+            player.sendMessage(plugin.getMessages().get("shop.preview.stock", "stock", String.valueOf(shop.getStock())));
+            player.sendMessage(plugin.getMessages().get("shop.preview.status", "status", getStatusMessage(shop)));
+            player.sendMessage(plugin.getMessages().get("shop.preview.footer"));
         }
     }
 
     private String getStatusMessage(Shop shop) {
         String statusKey = "shop.status." + shop.getStatus().name().toLowerCase().replace("_", "-");
-        return plugin.getConfigManager().getMessage(statusKey);
+        return plugin.getMessages().get(statusKey);
     }
 }
@@ -1,213 +1,294 @@
 package de.flori.chestShop.managers;
 
 import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.index.BlockKey;
+import de.flori.chestShop.index.ChunkKey;
+import de.flori.chestShop.index.LongObjectMap;
+import de.flori.chestShop.index.PriceBook;
+import de.flori.chestShop.index.ShopGrid;
 import de.flori.chestShop.models.Shop;
+import de.flori.chestShop.storage.H2ShopRepository;
+import de.flori.chestShop.storage.ShopRepository;
+import de.flori.chestShop.storage.ShopSavePipeline;
+import de.flori.chestShop.storage.ShopSnapshot;
+import de.flori.chestShop.storage.YamlShopRepository;
 import de.flori.chestShop.utils.HologramUtil;
+import de.flori.chestShop.utils.SignUtil;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class ShopManager {
 
     private final ChestShopPlugin plugin;
     private final Map<String, Shop> shops;
-    private final Map<String, String> locationToShopId;
+    // Chest and sign blocks by world UID and packed block position (main thread only)
+    private final Map<UUID, LongObjectMap<Shop>> shopsByBlock;
+    // Shops with chest or sign in a chunk, by world UID and packed chunk position (main thread only)
+    private final Map<UUID, LongObjectMap<List<Shop>>> shopsByChunk;
+    // Spatial index over the chest positions, by world UID (main thread only)
+    private final Map<UUID, ShopGrid> grids;
+    // Secondary indexes, shop ids by owner and by shop item (main thread only)
+    private final Map<UUID, Set<String>> shopIdsByOwner;
+    private final Map<Material, Set<String>> shopIdsByItem;
+    // Active offers sorted by price (main thread only)
+    private final PriceBook priceBook;
+    // Owner and item a shop is currently indexed under, needed to move it when they change
+    private final Map<String, AttributeKey> indexedAttributes;
+    private final Set<String> removedShopIds;
+    // Shops whose world is not loaded yet, by world name; bound in bindWorld()
+    private final Map<String, List<ShopSnapshot>> pendingShops;
+    private final ShopSavePipeline savePipeline;
 
     public ShopManager(ChestShopPlugin plugin) {
         this.plugin = plugin;
         this.shops = new ConcurrentHashMap<>();
-        this.locationToShopId = new ConcurrentHashMap<>();
+        this.shopsByBlock = new HashMap<>();
+        this.shopsByChunk = new HashMap<>();
+        this.grids = new HashMap<>();
+        this.shopIdsByOwner = new HashMap<>();
+        this.shopIdsByItem = new EnumMap<>(Material.class);
+        this.indexedAttributes = new HashMap<>();
+        this.priceBook = new PriceBook();
+        this.removedShopIds = ConcurrentHashMap.newKeySet();
+        this.pendingShops = new HashMap<>();
+        this.savePipeline = new ShopSavePipeline(plugin, createRepository());
         
         // Load shops after initialization
         plugin.getLogger().info("ShopManager initialized, now loading shops...");
         loadShops();
     }
 
+    private ShopRepository createRepository() {
+        String type = plugin.getConfigManager().getConfig().getString("storage.type", "yaml");
+        if ("h2".equalsIgnoreCase(type)) {
+            plugin.getLogger().info("Using H2 database shop storage");
+            return new H2ShopRepository(plugin);
+        }
+        if (!"yaml".equalsIgnoreCase(type)) {
+            plugin.getLogger().warning("Unknown storage type '" + type + "', using yaml");
+        }
+        return new YamlShopRepository(plugin);
+    }
+
     public void loadShops() {
+        // Reading the store while changes wait for a retry would bring back stale shops
+        if (savePipeline.getRepository().exists() && !savePipeline.awaitWrites()) {
+            plugin.getLogger().severe("Shops were not reloaded: pending changes could not be saved, the write is retried");
+            return;
+        }
+        
         shops.clear();
-        locationToShopId.clear();
+        shopsByBlock.clear();
+        shopsByChunk.clear();
+        grids.clear();
+        shopIdsByOwner.clear();
+        shopIdsByItem.clear();
+        indexedAttributes.clear();
+        priceBook.clear();
+        removedShopIds.clear();
+        pendingShops.clear();
         
-        FileConfiguration config = plugin.getConfigManager().getShops();
-        ConfigurationSection shopsSection = config.getConfigurationSection("shops");
+        long start = System.currentTimeMillis();
+        ShopRepository repository = savePipeline.getRepository();
+        List<ShopSnapshot> snapshots;
         
-        if (shopsSection == null) {
-            return;
+        if (repository.exists()) {
+            snapshots = savePipeline.load();
+        } else {
+            // First start with this repository: import the previous storage.
+            // The imported shops are handed to the save thread right away, including those
+            // whose world is not loaded yet.
+            snapshots = loadPreviousStorage(repository);
+            if (!snapshots.isEmpty()) {
+                savePipeline.submit(snapshots, List.of());
+                plugin.getLogger().info("Imported " + snapshots.size() + " shops into the new shop storage");
+            }
+        }
+        
+        for (ShopSnapshot snapshot : snapshots) {
+            World chestWorld = plugin.getServer().getWorld(snapshot.chestWorld());
+            World signWorld = plugin.getServer().getWorld(snapshot.signWorld());
+            if (chestWorld != null && signWorld != null) {
+                bindShop(snapshot, chestWorld, signWorld);
+            } else {
+                deferShop(snapshot, chestWorld == null ? snapshot.chestWorld() : snapshot.signWorld());
+            }
         }
 
-        for (String shopId : shopsSection.getKeys(false)) {
-            try {
-                ConfigurationSection shopSection = shopsSection.getConfigurationSection(shopId);
-                if (shopSection == null) continue;
-
-                UUID ownerId = UUID.fromString(shopSection.getString("owner-id"));
-                String ownerName = shopSection.getString("owner-name");
-                Location chestLocation = deserializeLocation(shopSection, "chest-location");
-                Location signLocation = deserializeLocation(shopSection, "sign-location");
-                
-                // Skip shop if locations could not be deserialized
-                if (chestLocation == null || signLocation == null) {
-                    plugin.getLogger().warning("Skipping shop " + shopId + " due to invalid locations (chest: " + 
-                        (chestLocation != null) + ", sign: " + (signLocation != null) + ")");
-                    continue;
-                }
-                Material item = Material.valueOf(shopSection.getString("item"));
-                int amount = shopSection.getInt("amount");
-                double buyPrice = shopSection.getDouble("buy-price");
-                double sellPrice = shopSection.getDouble("sell-price");
-                boolean active = shopSection.getBoolean("active", true);
-                long created = shopSection.getLong("created");
-                long lastUsed = shopSection.getLong("last-used");
-
-                Shop shop = new Shop(shopId, ownerId, ownerName, chestLocation, signLocation, item, amount, buyPrice, sellPrice);
-                shop.setActive(active);
-                shop.setCreated(created);
-                shop.setLastUsed(lastUsed);
-                
-                // Load item trading data if available
-                boolean isItemTradingShop = shopSection.getBoolean("item-trading.enabled", false);
-                if (isItemTradingShop) {
-                    plugin.getLogger().info("Loading item trading shop " + shopId);
-                    shop.setItemTradingShop(true);
-                    
-                    String buyItemName = shopSection.getString("item-trading.buy-item");
-                    if (buyItemName != null) {
-                        try {
-                            shop.setBuyItemType(Material.valueOf(buyItemName));
-                        } catch (IllegalArgumentException e) {
-                            plugin.getLogger().warning("Invalid buy item type for shop " + shopId + ": " + buyItemName);
-                        }
-                    }
-                    
-                    int buyItemAmount = shopSection.getInt("item-trading.buy-amount", 1);
-                    shop.setBuyItemAmount(buyItemAmount);
-                    
-                    String sellItemName = shopSection.getString("item-trading.sell-item");
-                    if (sellItemName != null) {
-                        try {
-                            shop.setSellItemType(Material.valueOf(sellItemName));
-                        } catch (IllegalArgumentException e) {
-                            plugin.getLogger().warning("Invalid sell item type for shop " + shopId + ": " + sellItemName);
-                        }
-                    }
-                    
-                    int sellItemAmount = shopSection.getInt("item-trading.sell-amount", 1);
-                    shop.setSellItemAmount(sellItemAmount);
-                    
-                    plugin.getLogger().info("Loaded item trading shop " + shopId + ": " + 
-                        buyItemAmount + "x " + buyItemName + " -> " + sellItemAmount + "x " + sellItemName);
-                    
-                    // Load item meta if available (for future use)
-                    ConfigurationSection buyItemMetaSection = shopSection.getConfigurationSection("item-trading.buy-item-meta");
-                    if (buyItemMetaSection != null) {
-                        Map<String, Object> buyItemMeta = new HashMap<>();
-                        for (String key : buyItemMetaSection.getKeys(false)) {
-                            buyItemMeta.put(key, buyItemMetaSection.get(key));
-                        }
-                        shop.setBuyItemMeta(buyItemMeta);
-                    }
-                    
-                    ConfigurationSection sellItemMetaSection = shopSection.getConfigurationSection("item-trading.sell-item-meta");
-                    if (sellItemMetaSection != null) {
-                        Map<String, Object> sellItemMeta = new HashMap<>();
-                        for (String key : sellItemMetaSection.getKeys(false)) {
-                            sellItemMeta.put(key, sellItemMetaSection.get(key));
-                        }
-                        shop.setSellItemMeta(sellItemMeta);
-                    }
-                }
-
-                shops.put(shopId, shop);
-                
-                // Only add to location mapping if locations are valid
-                if (chestLocation != null) {
-                    locationToShopId.put(locationToString(chestLocation), shopId);
-                }
-                if (signLocation != null) {
-                    locationToShopId.put(locationToString(signLocation), shopId);
-                }
-                
-                plugin.getLogger().info("Successfully loaded shop " + shopId + " for " + ownerName + 
-                    (shop.isItemTradingShop() ? " (Item Trading)" : " (Regular)"));
+        plugin.getLogger().info("Shops loaded: " + shops.size() + " in " + (System.currentTimeMillis() - start) + "ms");
+        for (Map.Entry<String, List<ShopSnapshot>> entry : pendingShops.entrySet()) {
+            plugin.getLogger().info(entry.getValue().size() + " shops are waiting for world '" + entry.getKey() + "' to load");
+        }
+    }
 
-            } catch (Exception e) {
-                plugin.getLogger().warning("Error loading shop " + shopId + ": " + e.getMessage());
+    /**
+     * Binds the shops waiting for the given world (called on WorldLoadEvent)
+     *
+     * @return the shops that are now available
+     */
+    public List<Shop> bindWorld(World world) {
+        List<ShopSnapshot> waiting = pendingShops.remove(world.getName());
+        if (waiting == null) {
+            return List.of();
+        }
+        
+        List<Shop> bound = new ArrayList<>();
+        for (ShopSnapshot snapshot : waiting) {
+            World chestWorld = plugin.getServer().getWorld(snapshot.chestWorld());
+            World signWorld = plugin.getServer().getWorld(snapshot.signWorld());
+            if (chestWorld == null || signWorld == null) {
+                // Chest and sign in different worlds, wait for the other one as well
+                deferShop(snapshot, chestWorld == null ? snapshot.chestWorld() : snapshot.signWorld());
+                continue;
             }
+            
+            bound.add(bindShop(snapshot, chestWorld, signWorld));
         }
+        
+        plugin.getLogger().info("Loaded " + bound.size() + " shops in world '" + world.getName() + "'");
+        return bound;
+    }
 
-        plugin.getLogger().info("Shops loaded: " + shops.size());
+    private void deferShop(ShopSnapshot snapshot, String worldName) {
+        pendingShops.computeIfAbsent(worldName, key -> new ArrayList<>()).add(snapshot);
     }
 
-    public void saveAllShops() {
-        FileConfiguration config = plugin.getConfigManager().getShops();
-        config.set("shops", null); // Clear existing shops
+    /**
+     * Reads the shops of the storage used before the given repository:
+     * the region files when switching to the database, otherwise the legacy shops.yml
+     */
+    private List<ShopSnapshot> loadPreviousStorage(ShopRepository repository) {
+        if (!(repository instanceof YamlShopRepository)) {
+            YamlShopRepository regions = new YamlShopRepository(plugin);
+            if (regions.exists()) {
+                return regions.load();
+            }
+        }
         
-        for (Shop shop : shops.values()) {
-            saveShop(shop, config);
+        FileConfiguration config = plugin.getConfigManager().getShops();
+        ConfigurationSection shopsSection = config.getConfigurationSection("shops");
+        if (shopsSection == null) {
+            return new ArrayList<>();
         }
         
-        plugin.getConfigManager().saveShops();
+        // Parse in parallel, the sections are only read
+        return shopsSection.getKeys(false).parallelStream()
+            .map(shopId -> readLegacyShop(shopId, shopsSection.getConfigurationSection(shopId)))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
 
-    private void saveShop(Shop shop, FileConfiguration config) {
-        String path = "shops." + shop.getId();
-        
-        config.set(path + ".owner-id", shop.getOwnerId().toString());
-        config.set(path + ".owner-name", shop.getOwnerName());
-        config.set(path + ".chest-location", serializeLocation(shop.getChestLocation()));
-        config.set(path + ".sign-location", serializeLocation(shop.getSignLocation()));
-        config.set(path + ".item", shop.getItem().name());
-        config.set(path + ".amount", shop.getAmount());
-        config.set(path + ".buy-price", shop.getBuyPrice());
-        config.set(path + ".sell-price", shop.getSellPrice());
-        config.set(path + ".active", shop.isActive());
-        config.set(path + ".created", shop.getCreated());
-        config.set(path + ".last-used", shop.getLastUsed());
+    private ShopSnapshot readLegacyShop(String shopId, ConfigurationSection shopSection) {
+        if (shopSection == null) {
+            return null;
+        }
+        try {
+            return ShopSnapshot.read(shopId, shopSection, plugin.getLogger());
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error loading shop " + shopId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Shop bindShop(ShopSnapshot snapshot, World chestWorld, World signWorld) {
+        String shopId = snapshot.id();
+        Location chestLocation = new Location(chestWorld, snapshot.chestX(), snapshot.chestY(), snapshot.chestZ());
+        Location signLocation = new Location(signWorld, snapshot.signX(), snapshot.signY(), snapshot.signZ());
+
+        Shop shop = new Shop(shopId, snapshot.ownerId(), snapshot.ownerName(), chestLocation, signLocation,
+            snapshot.item(), snapshot.amount(), snapshot.buyPrice(), snapshot.sellPrice());
+        shop.setActive(snapshot.active());
+        shop.setCreated(snapshot.created());
+        shop.setLastUsed(snapshot.lastUsed());
         
-        // Save item trading data if this is an item trading shop
-        if (shop.isItemTradingShop()) {
-            plugin.getLogger().info("Saving item trading shop " + shop.getId() + " with items: " + shop.getBuyItemType() + " -> " + shop.getSellItemType());
-            config.set(path + ".item-trading.enabled", true);
+        if (snapshot.itemTradingShop()) {
+            shop.setItemTradingShop(true);
+            shop.setBuyItemType(snapshot.buyItemType());
+            shop.setBuyItemAmount(snapshot.buyItemAmount());
+            shop.setSellItemType(snapshot.sellItemType());
+            shop.setSellItemAmount(snapshot.sellItemAmount());
             
-            if (shop.getBuyItemType() != null) {
-                config.set(path + ".item-trading.buy-item", shop.getBuyItemType().name());
+            // Item meta (for future use), copied because the shop may modify it
+            if (!snapshot.buyItemMeta().isEmpty()) {
+                shop.setBuyItemMeta(new HashMap<>(snapshot.buyItemMeta()));
             }
-            config.set(path + ".item-trading.buy-amount", shop.getBuyItemAmount());
-            
-            if (shop.getSellItemType() != null) {
-                config.set(path + ".item-trading.sell-item", shop.getSellItemType().name());
+            if (!snapshot.sellItemMeta().isEmpty()) {
+                shop.setSellItemMeta(new HashMap<>(snapshot.sellItemMeta()));
             }
-            config.set(path + ".item-trading.sell-amount", shop.getSellItemAmount());
-            
-            // Save item meta if available
-            Map<String, Object> buyItemMeta = shop.getBuyItemMeta();
-            if (buyItemMeta != null && !buyItemMeta.isEmpty()) {
-                for (Map.Entry<String, Object> entry : buyItemMeta.entrySet()) {
-                    config.set(path + ".item-trading.buy-item-meta." + entry.getKey(), entry.getValue());
-                }
+        }
+        
+        // Loaded from storage (or already queued for saving), nothing to write back
+        shop.clearDirty();
+
+        shops.put(shopId, shop);
+        indexShop(shop);
+        
+        if (isDebug()) {
+            plugin.getLogger().info("Loaded shop " + shopId + " for " + snapshot.ownerName() + 
+                (shop.isItemTradingShop() ? " (Item Trading: " + snapshot.buyItemAmount() + "x " + snapshot.buyItemType() + 
+                    " -> " + snapshot.sellItemAmount() + "x " + snapshot.sellItemType() + ")" : " (Regular)"));
+        }
+        return shop;
+    }
+
+    private boolean isDebug() {
+        return plugin.getSettings().debug();
+    }
+
+    /**
+     * Snapshots all changed and removed shops and hands them to the background save thread.
+     * Shops without changes since the last save are not serialized again.
+     */
+    public void saveAllShops() {
+        List<String> removed = new ArrayList<>();
+        for (Iterator<String> iterator = removedShopIds.iterator(); iterator.hasNext(); ) {
+            String shopId = iterator.next();
+            iterator.remove();
+            if (!shops.containsKey(shopId)) {
+                removed.add(shopId);
             }
-            
-            Map<String, Object> sellItemMeta = shop.getSellItemMeta();
-            if (sellItemMeta != null && !sellItemMeta.isEmpty()) {
-                for (Map.Entry<String, Object> entry : sellItemMeta.entrySet()) {
-                    config.set(path + ".item-trading.sell-item-meta." + entry.getKey(), entry.getValue());
-                }
+        }
+        
+        List<ShopSnapshot> changed = new ArrayList<>();
+        for (Shop shop : shops.values()) {
+            if (shop.isDirty()) {
+                shop.clearDirty();
+                changed.add(ShopSnapshot.of(shop));
             }
-        } else {
-            config.set(path + ".item-trading.enabled", false);
         }
+        
+        savePipeline.submit(changed, removed);
+    }
+
+    /**
+     * Saves pending changes and waits a bounded time for the save thread to finish (plugin disable)
+     */
+    public void shutdown() {
+        saveAllShops();
+        long timeout = plugin.getConfigManager().getConfig().getLong("storage.shutdown-timeout-seconds", 10);
+        savePipeline.shutdown(timeout);
+    }
+
+    /**
+     * Blocks until the save thread has written all shops saved so far (load generator)
+     */
+    public void awaitSaves() {
+        savePipeline.awaitWrites();
     }
 
     public Shop createShop(String id, UUID ownerId, String ownerName, Location chestLocation,
                            Location signLocation, Material item, int amount, double buyPrice, double sellPrice) {
         Shop shop = new Shop(id, ownerId, ownerName, chestLocation, signLocation, item, amount, buyPrice, sellPrice);
         shops.put(id, shop);
-        locationToShopId.put(locationToString(chestLocation), id);
-        locationToShopId.put(locationToString(signLocation), id);
+        indexShop(shop);
         
         // Create hologram
         HologramUtil.createShopHologram(shop, plugin);
@@ -218,11 +299,12 @@ public class ShopManager {
     public boolean removeShop(String shopId) {
         Shop shop = shops.remove(shopId);
         if (shop != null) {
-            locationToShopId.remove(locationToString(shop.getChestLocation()));
-            locationToShopId.remove(locationToString(shop.getSignLocation()));
+            removedShopIds.add(shopId);
+            unindexShop(shop);
             
             // Remove hologram
             HologramUtil.removeShopHologram(shopId);
+            SignUtil.forgetShop(shopId);
             
             return true;
         }
@@ -234,15 +316,169 @@ public class ShopManager {
     }
 
     public Shop getShopByLocation(Location location) {
-        String locationString = locationToString(location);
-        String shopId = locationToShopId.get(locationString);
-        return shopId != null ? shops.get(shopId) : null;
+        if (location == null || location.getWorld() == null) {
+            return null;
+        }
+        return getShopByLocation(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Returns the shop whose chest or sign is at the given block, without allocating
+     */
+    public Shop getShopByLocation(World world, int x, int y, int z) {
+        LongObjectMap<Shop> worldShops = shopsByBlock.get(world.getUID());
+        return worldShops != null ? worldShops.get(BlockKey.pack(x, y, z)) : null;
+    }
+
+    /**
+     * Returns true if a chest or sign of any shop lies in the given chunk
+     */
+    public boolean hasShopsInChunk(World world, int chunkX, int chunkZ) {
+        LongObjectMap<List<Shop>> worldChunks = shopsByChunk.get(world.getUID());
+        return worldChunks != null && worldChunks.containsKey(ChunkKey.pack(chunkX, chunkZ));
+    }
+
+    /**
+     * Returns all shops in the given chunk (chest or sign), empty if there are none
+     */
+    public List<Shop> getShopsInChunk(World world, int chunkX, int chunkZ) {
+        LongObjectMap<List<Shop>> worldChunks = shopsByChunk.get(world.getUID());
+        List<Shop> chunkShops = worldChunks != null ? worldChunks.get(ChunkKey.pack(chunkX, chunkZ)) : null;
+        return chunkShops != null ? Collections.unmodifiableList(chunkShops) : List.of();
+    }
+
+    /**
+     * Returns all shops whose chest or sign lies within the given block distance on every axis.
+     * Only the chunks overlapping that cube are visited.
+     */
+    public List<Shop> getShopsNear(World world, int x, int y, int z, int distance) {
+        LongObjectMap<List<Shop>> worldChunks = shopsByChunk.get(world.getUID());
+        if (worldChunks == null) {
+            return List.of();
+        }
+        
+        List<Shop> result = null;
+        for (int chunkX = (x - distance) >> 4; chunkX <= (x + distance) >> 4; chunkX++) {
+            for (int chunkZ = (z - distance) >> 4; chunkZ <= (z + distance) >> 4; chunkZ++) {
+                List<Shop> chunkShops = worldChunks.get(ChunkKey.pack(chunkX, chunkZ));
+                if (chunkShops == null) continue;
+                
+                for (Shop shop : chunkShops) {
+                    if ((isWithin(shop.getChestLocation(), x, y, z, distance) || isWithin(shop.getSignLocation(), x, y, z, distance))
+                            && (result == null || !result.contains(shop))) {
+                        if (result == null) {
+                            result = new ArrayList<>();
+                        }
+                        result.add(shop);
+                    }
+                }
+            }
+        }
+        return result != null ? result : List.of();
+    }
+
+    /**
+     * Returns all shops whose chest lies within the radius, nearest first
+     */
+    public List<Shop> getShopsInRadius(Location center, double radius) {
+        return getShopsInRadius(center, radius, shop -> true);
+    }
+
+    /**
+     * Returns all matching shops whose chest lies within the radius, nearest first
+     */
+    public List<Shop> getShopsInRadius(Location center, double radius, Predicate<Shop> filter) {
+        ShopGrid grid = center.getWorld() != null ? grids.get(center.getWorld().getUID()) : null;
+        if (grid == null) {
+            return new ArrayList<>();
+        }
+        return grid.inRadius(center.getX(), center.getY(), center.getZ(), radius, filter);
+    }
+
+    /**
+     * Returns all shops whose chest lies inside the box (inclusive block coordinates)
+     */
+    public List<Shop> getShopsInBox(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        ShopGrid grid = grids.get(world.getUID());
+        if (grid == null) {
+            return new ArrayList<>();
+        }
+        return grid.inBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Returns up to {@code limit} matching shops within {@code maxDistance} of the center, nearest first
+     */
+    public List<Shop> getNearestShops(Location center, int limit, double maxDistance, Predicate<Shop> filter) {
+        ShopGrid grid = center.getWorld() != null ? grids.get(center.getWorld().getUID()) : null;
+        if (grid == null) {
+            return new ArrayList<>();
+        }
+        return grid.nearest(center.getX(), center.getY(), center.getZ(), limit, maxDistance, filter);
+    }
+
+    private static boolean isWithin(Location location, int x, int y, int z, int distance) {
+        return Math.abs(location.getBlockX() - x) <= distance
+            && Math.abs(location.getBlockY() - y) <= distance
+            && Math.abs(location.getBlockZ() - z) <= distance;
     }
 
     public List<Shop> getShopsByOwner(UUID ownerId) {
-        return shops.values().stream()
-                .filter(shop -> shop.getOwnerId().equals(ownerId))
-                .collect(Collectors.toList());
+        return resolve(shopIdsByOwner.get(ownerId));
+    }
+
+    /**
+     * Returns all shops selling or buying the given item (not the items of item trades)
+     */
+    public List<Shop> getShopsByItem(Material item) {
+        return resolve(shopIdsByItem.get(item));
+    }
+
+    /**
+     * Returns up to {@code limit} matching shops selling the item, cheapest unit price first
+     */
+    public List<Shop> getBestBuyOffers(Material item, int limit, Predicate<Shop> filter) {
+        return priceBook.cheapestBuy(item, limit, filter);
+    }
+
+    /**
+     * Returns up to {@code limit} matching shops buying the item, highest unit price first
+     */
+    public List<Shop> getBestSellOffers(Material item, int limit, Predicate<Shop> filter) {
+        return priceBook.highestSell(item, limit, filter);
+    }
+
+    /**
+     * Returns all active shops whose buy (or sell) price lies within the range, cheapest first
+     */
+    public List<Shop> getShopsByPriceRange(double minPrice, double maxPrice, boolean buyPrice) {
+        return priceBook.inPriceRange(minPrice, maxPrice, buyPrice);
+    }
+
+    /**
+     * Updates the owner, item and price indexes after a shop changed
+     * (price change, toggle, conversion to item trading)
+     */
+    public void reindexShop(Shop shop) {
+        if (shops.get(shop.getId()) != shop) {
+            return;
+        }
+        unindexAttributes(shop.getId());
+        indexAttributes(shop);
+    }
+
+    private List<Shop> resolve(Set<String> shopIds) {
+        if (shopIds == null) {
+            return new ArrayList<>();
+        }
+        List<Shop> result = new ArrayList<>(shopIds.size());
+        for (String shopId : shopIds) {
+            Shop shop = shops.get(shopId);
+            if (shop != null) {
+                result.add(shop);
+            }
+        }
+        return result;
     }
 
     public List<Shop> getAllShops() {
@@ -254,9 +490,8 @@ public class ShopManager {
     }
 
     public int getShopCount(UUID ownerId) {
-        return (int) shops.values().stream()
-                .filter(shop -> shop.getOwnerId().equals(ownerId))
-                .count();
+        Set<String> shopIds = shopIdsByOwner.get(ownerId);
+        return shopIds != null ? shopIds.size() : 0;
     }
 
     public boolean isChestShop(Location location) {
@@ -267,86 +502,115 @@ public class ShopManager {
         return UUID.randomUUID().toString().substring(0, 8);
     }
 
-    private String locationToString(Location location) {
+    private void indexShop(Shop shop) {
+        indexAttributes(shop);
+        indexBlock(shop.getChestLocation(), shop);
+        indexBlock(shop.getSignLocation(), shop);
+        indexChunk(shop.getChestLocation(), shop);
+        indexChunk(shop.getSignLocation(), shop);
+        if (shop.getChestLocation() != null && shop.getChestLocation().getWorld() != null) {
+            grids.computeIfAbsent(shop.getChestLocation().getWorld().getUID(), uid -> new ShopGrid()).add(shop);
+        }
+    }
+
+    private void unindexShop(Shop shop) {
+        unindexAttributes(shop.getId());
+        unindexBlock(shop.getChestLocation(), shop);
+        unindexBlock(shop.getSignLocation(), shop);
+        unindexChunk(shop.getChestLocation(), shop);
+        unindexChunk(shop.getSignLocation(), shop);
+        if (shop.getChestLocation() != null && shop.getChestLocation().getWorld() != null) {
+            ShopGrid grid = grids.get(shop.getChestLocation().getWorld().getUID());
+            if (grid != null) {
+                grid.remove(shop);
+            }
+        }
+    }
+
+    private void indexAttributes(Shop shop) {
+        AttributeKey key = new AttributeKey(shop.getOwnerId(), shop.getItem());
+        indexedAttributes.put(shop.getId(), key);
+        shopIdsByOwner.computeIfAbsent(key.owner(), owner -> new LinkedHashSet<>()).add(shop.getId());
+        if (key.item() != null) {
+            shopIdsByItem.computeIfAbsent(key.item(), item -> new LinkedHashSet<>()).add(shop.getId());
+        }
+        priceBook.update(shop);
+    }
+
+    private void unindexAttributes(String shopId) {
+        priceBook.remove(shopId);
+        AttributeKey key = indexedAttributes.remove(shopId);
+        if (key == null) {
+            return;
+        }
+        removeFromIndex(shopIdsByOwner, key.owner(), shopId);
+        if (key.item() != null) {
+            removeFromIndex(shopIdsByItem, key.item(), shopId);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<String>> index, K key, String shopId) {
+        Set<String> shopIds = index.get(key);
+        if (shopIds != null && shopIds.remove(shopId) && shopIds.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private void indexChunk(Location location, Shop shop) {
         if (location == null || location.getWorld() == null) {
-            return "";
+            return;
+        }
+        LongObjectMap<List<Shop>> worldChunks = shopsByChunk.computeIfAbsent(location.getWorld().getUID(), uid -> new LongObjectMap<>());
+        long key = ChunkKey.ofBlock(location.getBlockX(), location.getBlockZ());
+        List<Shop> chunkShops = worldChunks.get(key);
+        if (chunkShops == null) {
+            chunkShops = new ArrayList<>(2);
+            worldChunks.put(key, chunkShops);
+        }
+        // Chest and sign are usually in the same chunk
+        if (!chunkShops.contains(shop)) {
+            chunkShops.add(shop);
         }
-        return location.getWorld().getName() + ":" + location.getBlockX() + ":" + location.getBlockY() + ":" + location.getBlockZ();
     }
 
-    private Map<String, Object> serializeLocation(Location location) {
+    private void unindexChunk(Location location, Shop shop) {
         if (location == null || location.getWorld() == null) {
-            plugin.getLogger().warning("Attempting to serialize null location or location with null world!");
-            Map<String, Object> map = new HashMap<>();
-            map.put("world", "world");
-            map.put("x", 0);
-            map.put("y", 0);
-            map.put("z", 0);
-            return map;
+            return;
+        }
+        LongObjectMap<List<Shop>> worldChunks = shopsByChunk.get(location.getWorld().getUID());
+        if (worldChunks == null) {
+            return;
+        }
+        long key = ChunkKey.ofBlock(location.getBlockX(), location.getBlockZ());
+        List<Shop> chunkShops = worldChunks.get(key);
+        if (chunkShops != null && chunkShops.remove(shop) && chunkShops.isEmpty()) {
+            worldChunks.remove(key);
         }
-        
-        Map<String, Object> map = new HashMap<>();
-        map.put("world", location.getWorld().getName());
-        map.put("x", location.getBlockX());
-        map.put("y", location.getBlockY());
-        map.put("z", location.getBlockZ());
-        return map;
     }
 
-    private Location deserializeLocation(ConfigurationSection parentSection, String locationKey) {
-        if (parentSection == null) {
-            plugin.getLogger().warning("Parent section is null during location deserialization!");
-            return null;
+    private void indexBlock(Location location, Shop shop) {
+        if (location == null || location.getWorld() == null) {
+            return;
         }
-        
-        // Try to get as ConfigurationSection first
-        ConfigurationSection section = parentSection.getConfigurationSection(locationKey);
-        
-        String worldName;
-        int x, y, z;
-        
-        if (section != null) {
-            // Standard ConfigurationSection approach
-            worldName = section.getString("world");
-            x = section.getInt("x");
-            y = section.getInt("y");
-            z = section.getInt("z");
-        } else {
-            // Try to get as raw object (for Map-based configurations)
-            Object locationObj = parentSection.get(locationKey);
-            if (locationObj instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> locationMap = (Map<String, Object>) locationObj;
-                worldName = (String) locationMap.get("world");
-                x = ((Number) locationMap.get("x")).intValue();
-                y = ((Number) locationMap.get("y")).intValue();
-                z = ((Number) locationMap.get("z")).intValue();
-            } else {
-                plugin.getLogger().warning("Location " + locationKey + " is neither ConfigurationSection nor Map!");
-                return null;
-            }
+        shopsByBlock.computeIfAbsent(location.getWorld().getUID(), uid -> new LongObjectMap<>())
+            .put(BlockKey.pack(location.getBlockX(), location.getBlockY(), location.getBlockZ()), shop);
+    }
+
+    private void unindexBlock(Location location, Shop shop) {
+        if (location == null || location.getWorld() == null) {
+            return;
         }
-        
-        if (worldName == null || worldName.isEmpty()) {
-            plugin.getLogger().warning("World name is null or empty during location deserialization for " + locationKey + "!");
-            return null;
+        LongObjectMap<Shop> worldShops = shopsByBlock.get(location.getWorld().getUID());
+        if (worldShops == null) {
+            return;
         }
-        
-        org.bukkit.World world = plugin.getServer().getWorld(worldName);
-        if (world == null) {
-            plugin.getLogger().warning("World '" + worldName + "' not found when loading shop location!");
-            // Try to find any available world
-            if (!plugin.getServer().getWorlds().isEmpty()) {
-                world = plugin.getServer().getWorlds().get(0);
-                plugin.getLogger().warning("Using fallback world: " + world.getName());
-            } else {
-                plugin.getLogger().severe("No worlds available! Cannot deserialize location.");
-                return null;
-            }
+        long key = BlockKey.pack(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        // Only remove the entry if it still belongs to this shop
+        if (worldShops.get(key) == shop) {
+            worldShops.remove(key);
         }
-        
-        Location location = new Location(world, x, y, z);
-        plugin.getLogger().info("Successfully deserialized " + locationKey + ": " + worldName + " (" + x + ", " + y + ", " + z + ")");
-        return location;
+    }
+
+    private record AttributeKey(UUID owner, Material item) {
     }
 }
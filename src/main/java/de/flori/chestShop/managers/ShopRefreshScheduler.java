@@ -0,0 +1,69 @@
+package de.flori.chestShop.managers;
+
+import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.models.Shop;
+import de.flori.chestShop.utils.SignUtil;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects shops whose sign and hologram need a refresh and renders them together once per interval
+ * (signs.refresh-interval-ticks). Any number of changes to a shop within one interval cost a single refresh.
+ * Main thread only.
+ */
+public class ShopRefreshScheduler {
+
+    private final ChestShopPlugin plugin;
+    private final Set<String> dirtyShopIds = new LinkedHashSet<>();
+    private BukkitTask task;
+
+    public ShopRefreshScheduler(ChestShopPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * (Re)starts the flush task with the configured interval
+     */
+    public void start() {
+        if (task != null) {
+            task.cancel();
+        }
+        long interval = Math.max(1, plugin.getConfigManager().getConfig().getLong("signs.refresh-interval-ticks", 1));
+        task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush, interval, interval);
+    }
+
+    /**
+     * Cancels the flush task and renders everything still pending (plugin disable)
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        flush();
+    }
+
+    public void markDirty(Shop shop) {
+        dirtyShopIds.add(shop.getId());
+    }
+
+    public void flush() {
+        if (dirtyShopIds.isEmpty() || plugin.getShopManager() == null) {
+            return;
+        }
+
+        List<String> shopIds = new ArrayList<>(dirtyShopIds);
+        dirtyShopIds.clear();
+        for (String shopId : shopIds) {
+            // Shops removed in the meantime are skipped
+            Shop shop = plugin.getShopManager().getShop(shopId);
+            if (shop != null) {
+                SignUtil.updateShopSign(shop, plugin);
+            }
+        }
+    }
+}
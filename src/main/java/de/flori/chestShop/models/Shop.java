@@ -2,12 +2,14 @@ package de.flori.chestShop.models;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.Chest;
 import org.bukkit.block.Sign;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -35,6 +37,17 @@ public class Shop {
     private int sellItemAmount;
     private Map<String, Object> buyItemMeta;
     private Map<String, Object> sellItemMeta;
+    
+    // Set whenever a persisted field changes, cleared once the shop has been saved
+    private boolean dirty = true;
+    
+    // Cached chest contents per material as {stock, free space}, recomputed lazily after invalidation
+    private final Map<Material, int[]> inventoryCounts = new EnumMap<>(Material.class);
+    // Space entry of a cached count that has to be recounted
+    private static final int UNKNOWN_SPACE = -1;
+    
+    // Live chest inventory (also of double chests), kept while the chunk stays loaded
+    private Inventory chestInventory;
 
     public Shop(String id, UUID ownerId, String ownerName, Location chestLocation, 
                 Location signLocation, Material item, int amount, double buyPrice, double sellPrice) {
@@ -67,46 +80,54 @@ public class Shop {
     public long getLastUsed() { return lastUsed; }
 
     // Setters
-    public void setId(String id) { this.id = id; }
-    public void setOwnerId(UUID ownerId) { this.ownerId = ownerId; }
-    public void setOwnerName(String ownerName) { this.ownerName = ownerName; }
-    public void setChestLocation(Location chestLocation) { this.chestLocation = chestLocation; }
-    public void setSignLocation(Location signLocation) { this.signLocation = signLocation; }
-    public void setItem(Material item) { this.item = item; }
-    public void setAmount(int amount) { this.amount = amount; }
-    public void setBuyPrice(double buyPrice) { this.buyPrice = buyPrice; }
-    public void setSellPrice(double sellPrice) { this.sellPrice = sellPrice; }
-    public void setActive(boolean active) { this.active = active; }
-    public void setCreated(long created) { this.created = created; }
-    public void setLastUsed(long lastUsed) { this.lastUsed = lastUsed; }
+    public void setId(String id) { this.id = id; markDirty(); }
+    public void setOwnerId(UUID ownerId) { this.ownerId = ownerId; markDirty(); }
+    public void setOwnerName(String ownerName) { this.ownerName = ownerName; markDirty(); }
+    public void setChestLocation(Location chestLocation) { this.chestLocation = chestLocation; markDirty(); }
+    public void setSignLocation(Location signLocation) { this.signLocation = signLocation; markDirty(); }
+    public void setItem(Material item) { this.item = item; markDirty(); }
+    public void setAmount(int amount) { this.amount = amount; markDirty(); }
+    public void setBuyPrice(double buyPrice) { this.buyPrice = buyPrice; markDirty(); }
+    public void setSellPrice(double sellPrice) { this.sellPrice = sellPrice; markDirty(); }
+    public void setActive(boolean active) { this.active = active; markDirty(); }
+    public void setCreated(long created) { this.created = created; markDirty(); }
+    public void setLastUsed(long lastUsed) { this.lastUsed = lastUsed; markDirty(); }
     
     // Item Trading getters and setters
     public boolean isItemTradingShop() { return isItemTradingShop; }
-    public void setItemTradingShop(boolean itemTradingShop) { this.isItemTradingShop = itemTradingShop; }
+    public void setItemTradingShop(boolean itemTradingShop) { this.isItemTradingShop = itemTradingShop; markDirty(); }
     
     public Material getBuyItemType() { return buyItemType; }
-    public void setBuyItemType(Material buyItemType) { this.buyItemType = buyItemType; }
+    public void setBuyItemType(Material buyItemType) { this.buyItemType = buyItemType; markDirty(); }
     
     public int getBuyItemAmount() { return buyItemAmount; }
-    public void setBuyItemAmount(int buyItemAmount) { this.buyItemAmount = buyItemAmount; }
+    public void setBuyItemAmount(int buyItemAmount) { this.buyItemAmount = buyItemAmount; markDirty(); }
     
     public Material getSellItemType() { return sellItemType; }
-    public void setSellItemType(Material sellItemType) { this.sellItemType = sellItemType; }
+    public void setSellItemType(Material sellItemType) { this.sellItemType = sellItemType; markDirty(); }
     
     public int getSellItemAmount() { return sellItemAmount; }
-    public void setSellItemAmount(int sellItemAmount) { this.sellItemAmount = sellItemAmount; }
+    public void setSellItemAmount(int sellItemAmount) { this.sellItemAmount = sellItemAmount; markDirty(); }
     
     public Map<String, Object> getBuyItemMeta() { 
         if (buyItemMeta == null) buyItemMeta = new HashMap<>();
         return buyItemMeta; 
     }
-    public void setBuyItemMeta(Map<String, Object> buyItemMeta) { this.buyItemMeta = buyItemMeta; }
+    public void setBuyItemMeta(Map<String, Object> buyItemMeta) { this.buyItemMeta = buyItemMeta; markDirty(); }
     
     public Map<String, Object> getSellItemMeta() { 
         if (sellItemMeta == null) sellItemMeta = new HashMap<>();
         return sellItemMeta; 
     }
-    public void setSellItemMeta(Map<String, Object> sellItemMeta) { this.sellItemMeta = sellItemMeta; }
+    public void setSellItemMeta(Map<String, Object> sellItemMeta) { this.sellItemMeta = sellItemMeta; markDirty(); }
+
+    // Persistence tracking
+    /**
+     * Returns true if the shop has changes that have not been written to storage yet
+     */
+    public boolean isDirty() { return dirty; }
+    public void markDirty() { this.dirty = true; }
+    public void clearDirty() { this.dirty = false; }
 
     // Utility Methods
     public boolean hasBuyPrice() {
@@ -117,16 +138,56 @@ public class Shop {
         return sellPrice > 0;
     }
 
+    /**
+     * Returns the live chest state (no snapshot), null if the chest is gone
+     */
     public Chest getChest() {
         if (chestLocation == null || chestLocation.getWorld() == null) {
             return null;
         }
         Block block = chestLocation.getBlock();
-        if (block.getState() instanceof Chest) {
-            return (Chest) block.getState();
+        if (block.getState(false) instanceof Chest chest) {
+            return chest;
         }
         return null;
     }
+    
+    /**
+     * Returns the live inventory of the shop chest (the whole double chest if it is one), null if the chest is gone.
+     * The handle is cached while the chunk is loaded and the block is still a chest.
+     */
+    public Inventory getChestInventory() {
+        if (chestInventory != null && isChestLoaded()) {
+            return chestInventory;
+        }
+        
+        chestInventory = null;
+        Chest chest = getChest();
+        if (chest != null) {
+            chestInventory = chest.getInventory();
+        }
+        return chestInventory;
+    }
+    
+    /**
+     * Drops the cached inventory handle (chunk unload, chest next to the shop placed or broken)
+     */
+    public void invalidateChestInventory() {
+        chestInventory = null;
+        inventoryCounts.clear();
+    }
+    
+    private boolean isChestLoaded() {
+        World world = chestLocation.getWorld();
+        int x = chestLocation.getBlockX();
+        int y = chestLocation.getBlockY();
+        int z = chestLocation.getBlockZ();
+        if (world == null || !world.isChunkLoaded(x >> 4, z >> 4)) {
+            return false;
+        }
+        Material type = world.getType(x, y, z);
+        return type == Material.CHEST || type == Material.TRAPPED_CHEST;
+    }
 
     public Sign getSign() {
         if (signLocation == null || signLocation.getWorld() == null) {
@@ -140,42 +201,11 @@ public class Shop {
     }
 
     public int getStock() {
-        Chest chest = getChest();
-        if (chest == null) {
-            return 0;
-        }
-        
-        Inventory inventory = chest.getInventory();
-        int stock = 0;
-        
-        for (ItemStack itemStack : inventory.getContents()) {
-            if (itemStack != null && itemStack.getType() == item) {
-                stock += itemStack.getAmount();
-            }
-        }
-        
-        return stock;
+        return getItemStock(item);
     }
 
     public int getAvailableSpace() {
-        Chest chest = getChest();
-        if (chest == null) {
-            return 0;
-        }
-        
-        Inventory inventory = chest.getInventory();
-        int space = 0;
-        int maxStackSize = item.getMaxStackSize();
-        
-        for (ItemStack itemStack : inventory.getContents()) {
-            if (itemStack == null) {
-                space += maxStackSize;
-            } else if (itemStack.getType() == item) {
-                space += maxStackSize - itemStack.getAmount();
-            }
-        }
-        
-        return space;
+        return getItemSpace(item);
     }
 
     public boolean canBuy(int requestedAmount) {
@@ -204,6 +234,7 @@ public class Shop {
 
     public void updateLastUsed() {
         this.lastUsed = System.currentTimeMillis();
+        markDirty();
     }
     
     // Item Trading Utility Methods
@@ -221,42 +252,92 @@ public class Shop {
     }
     
     public int getItemStock(Material itemType) {
-        Chest chest = getChest();
-        if (chest == null) {
-            return 0;
+        return getInventoryCounts(itemType)[0];
+    }
+    
+    public int getItemSpace(Material itemType) {
+        int[] counts = getInventoryCounts(itemType);
+        if (counts[1] == UNKNOWN_SPACE) {
+            // Only the stock survived a two-material change, recount
+            inventoryCounts.remove(itemType);
+            counts = getInventoryCounts(itemType);
         }
-        
-        Inventory inventory = chest.getInventory();
-        int stock = 0;
-        
-        for (ItemStack itemStack : inventory.getContents()) {
-            if (itemStack != null && itemStack.getType() == itemType) {
-                stock += itemStack.getAmount();
+        return counts[1];
+    }
+    
+    // Inventory count cache
+    /**
+     * Forgets all cached stock and space counts, e.g. after the chest was edited by hand
+     */
+    public void invalidateInventoryCounts() {
+        inventoryCounts.clear();
+    }
+    
+    /**
+     * Applies a known change of the chest contents: {@code delta} items of the material were added (or removed if negative).
+     * The counts of that material stay exact, all other materials are recounted on next access
+     * because a slot may have been filled or emptied.
+     */
+    public void applyInventoryChange(Material itemType, int delta) {
+        int[] counts = inventoryCounts.get(itemType);
+        inventoryCounts.clear();
+        if (counts != null) {
+            counts[0] += delta;
+            if (counts[1] != UNKNOWN_SPACE) {
+                counts[1] -= delta;
             }
+            inventoryCounts.put(itemType, counts);
         }
-        
-        return stock;
     }
     
-    public int getItemSpace(Material itemType) {
-        Chest chest = getChest();
-        if (chest == null) {
-            return 0;
+    /**
+     * Applies a known change of two materials at once (item trade). Both stocks stay exact; the space of each
+     * material is recounted on next access because the other one may have filled or emptied a slot.
+     */
+    public void applyInventoryChange(Material firstType, int firstDelta, Material secondType, int secondDelta) {
+        if (firstType == secondType) {
+            applyInventoryChange(firstType, firstDelta + secondDelta);
+            return;
+        }
+        int[] first = inventoryCounts.get(firstType);
+        int[] second = inventoryCounts.get(secondType);
+        inventoryCounts.clear();
+        if (first != null) {
+            inventoryCounts.put(firstType, new int[] {first[0] + firstDelta, UNKNOWN_SPACE});
+        }
+        if (second != null) {
+            inventoryCounts.put(secondType, new int[] {second[0] + secondDelta, UNKNOWN_SPACE});
+        }
+    }
+    
+    private int[] getInventoryCounts(Material itemType) {
+        int[] counts = inventoryCounts.get(itemType);
+        if (counts != null) {
+            return counts;
         }
         
-        Inventory inventory = chest.getInventory();
+        Inventory inventory = getChestInventory();
+        if (inventory == null) {
+            return new int[2];
+        }
+        
+        int stock = 0;
         int space = 0;
         int maxStackSize = itemType.getMaxStackSize();
         
-        for (ItemStack itemStack : inventory.getContents()) {
+        // Stock and space in a single scan
+        for (ItemStack itemStack : inventory.getStorageContents()) {
             if (itemStack == null) {
                 space += maxStackSize;
             } else if (itemStack.getType() == itemType) {
+                stock += itemStack.getAmount();
                 space += maxStackSize - itemStack.getAmount();
             }
         }
         
-        return space;
+        counts = new int[] {stock, space};
+        inventoryCounts.put(itemType, counts);
+        return counts;
     }
     
     // Additional methods for Item Trading compatibility
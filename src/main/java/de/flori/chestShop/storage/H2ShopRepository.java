@@ -0,0 +1,251 @@
+package de.flori.chestShop.storage;
+
+import de.flori.chestShop.ChestShopPlugin;
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Stores shops in an embedded H2 database (file mode, shops.mv.db in the plugin folder).
+ * Every changed shop costs a single row upsert, removed shops a single row delete.
+ */
+public class H2ShopRepository implements ShopRepository {
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS shops (
+                id VARCHAR(64) PRIMARY KEY,
+                owner_id VARCHAR(36) NOT NULL,
+                owner_name VARCHAR(64),
+                chest_world VARCHAR(128) NOT NULL,
+                chest_x INT NOT NULL,
+                chest_y INT NOT NULL,
+                chest_z INT NOT NULL,
+                chest_chunk_x INT NOT NULL,
+                chest_chunk_z INT NOT NULL,
+                sign_world VARCHAR(128) NOT NULL,
+                sign_x INT NOT NULL,
+                sign_y INT NOT NULL,
+                sign_z INT NOT NULL,
+                item VARCHAR(64) NOT NULL,
+                amount INT NOT NULL,
+                buy_price DOUBLE PRECISION NOT NULL,
+                sell_price DOUBLE PRECISION NOT NULL,
+                active BOOLEAN NOT NULL,
+                created BIGINT NOT NULL,
+                last_used BIGINT NOT NULL,
+                item_trading BOOLEAN NOT NULL,
+                buy_item VARCHAR(64),
+                buy_amount INT NOT NULL,
+                sell_item VARCHAR(64),
+                sell_amount INT NOT NULL,
+                buy_item_meta CLOB,
+                sell_item_meta CLOB
+            )""";
+
+    private static final String[] CREATE_INDEXES = {
+            "CREATE INDEX IF NOT EXISTS idx_shops_owner ON shops (owner_id)",
+            "CREATE INDEX IF NOT EXISTS idx_shops_item ON shops (item)",
+            "CREATE INDEX IF NOT EXISTS idx_shops_chunk ON shops (chest_world, chest_chunk_x, chest_chunk_z)"
+    };
+
+    private static final String UPSERT = """
+            MERGE INTO shops (id, owner_id, owner_name,
+                chest_world, chest_x, chest_y, chest_z, chest_chunk_x, chest_chunk_z,
+                sign_world, sign_x, sign_y, sign_z,
+                item, amount, buy_price, sell_price, active, created, last_used,
+                item_trading, buy_item, buy_amount, sell_item, sell_amount, buy_item_meta, sell_item_meta)
+            KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String DELETE = "DELETE FROM shops WHERE id = ?";
+
+    private static final String SELECT_ALL = "SELECT * FROM shops";
+
+    private final ChestShopPlugin plugin;
+    private final File databaseFile;
+    private final String url;
+    private Connection connection;
+
+    public H2ShopRepository(ChestShopPlugin plugin) {
+        this.plugin = plugin;
+        this.databaseFile = new File(plugin.getDataFolder(), "shops.mv.db");
+        this.url = "jdbc:h2:" + new File(plugin.getDataFolder(), "shops").getAbsolutePath();
+    }
+
+    @Override
+    public boolean exists() {
+        return databaseFile.isFile();
+    }
+
+    @Override
+    public List<ShopSnapshot> load() throws SQLException {
+        List<ShopSnapshot> snapshots = new ArrayList<>();
+
+        try (Statement statement = connection().createStatement();
+             ResultSet result = statement.executeQuery(SELECT_ALL)) {
+            while (result.next()) {
+                String shopId = result.getString("id");
+                try {
+                    snapshots.add(read(result));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Error loading shop " + shopId + ": " + e.getMessage());
+                }
+            }
+        }
+
+        return snapshots;
+    }
+
+    @Override
+    public void save(Collection<ShopSnapshot> changed, Collection<String> removed) throws SQLException {
+        Connection connection = connection();
+
+        try (PreparedStatement delete = connection.prepareStatement(DELETE);
+             PreparedStatement upsert = connection.prepareStatement(UPSERT)) {
+            for (String shopId : removed) {
+                delete.setString(1, shopId);
+                delete.addBatch();
+            }
+            for (ShopSnapshot snapshot : changed) {
+                bind(upsert, snapshot);
+                upsert.addBatch();
+            }
+
+            if (!removed.isEmpty()) {
+                delete.executeBatch();
+            }
+            if (!changed.isEmpty()) {
+                upsert.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Could not close shop database: " + e.getMessage());
+        }
+        connection = null;
+    }
+
+    /**
+     * Opens the database on first use and creates the schema if needed
+     */
+    private Connection connection() throws SQLException {
+        if (connection != null && !connection.isClosed()) {
+            return connection;
+        }
+
+        // Use the (relocated) driver directly, DriverManager does not see the plugin class loader
+        connection = new org.h2.Driver().connect(url, new Properties());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+            for (String index : CREATE_INDEXES) {
+                statement.execute(index);
+            }
+        }
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private void bind(PreparedStatement statement, ShopSnapshot shop) throws SQLException {
+        int i = 1;
+        statement.setString(i++, shop.id());
+        statement.setString(i++, shop.ownerId().toString());
+        statement.setString(i++, shop.ownerName());
+        statement.setString(i++, shop.chestWorld());
+        statement.setInt(i++, shop.chestX());
+        statement.setInt(i++, shop.chestY());
+        statement.setInt(i++, shop.chestZ());
+        statement.setInt(i++, shop.chestX() >> 4);
+        statement.setInt(i++, shop.chestZ() >> 4);
+        statement.setString(i++, shop.signWorld());
+        statement.setInt(i++, shop.signX());
+        statement.setInt(i++, shop.signY());
+        statement.setInt(i++, shop.signZ());
+        statement.setString(i++, shop.item().name());
+        statement.setInt(i++, shop.amount());
+        statement.setDouble(i++, shop.buyPrice());
+        statement.setDouble(i++, shop.sellPrice());
+        statement.setBoolean(i++, shop.active());
+        statement.setLong(i++, shop.created());
+        statement.setLong(i++, shop.lastUsed());
+        statement.setBoolean(i++, shop.itemTradingShop());
+        statement.setString(i++, shop.buyItemType() != null ? shop.buyItemType().name() : null);
+        statement.setInt(i++, shop.buyItemAmount());
+        statement.setString(i++, shop.sellItemType() != null ? shop.sellItemType().name() : null);
+        statement.setInt(i++, shop.sellItemAmount());
+        statement.setString(i++, writeMeta(shop.buyItemMeta()));
+        statement.setString(i, writeMeta(shop.sellItemMeta()));
+    }
+
+    private ShopSnapshot read(ResultSet result) throws SQLException, InvalidConfigurationException {
+        String shopId = result.getString("id");
+        boolean itemTrading = result.getBoolean("item_trading");
+
+        return new ShopSnapshot(
+                shopId,
+                UUID.fromString(result.getString("owner_id")),
+                result.getString("owner_name"),
+                result.getString("chest_world"), result.getInt("chest_x"), result.getInt("chest_y"), result.getInt("chest_z"),
+                result.getString("sign_world"), result.getInt("sign_x"), result.getInt("sign_y"), result.getInt("sign_z"),
+                Material.valueOf(result.getString("item")),
+                result.getInt("amount"),
+                result.getDouble("buy_price"),
+                result.getDouble("sell_price"),
+                result.getBoolean("active"),
+                result.getLong("created"),
+                result.getLong("last_used"),
+                itemTrading,
+                readMaterial(shopId, result.getString("buy_item")),
+                result.getInt("buy_amount"),
+                readMaterial(shopId, result.getString("sell_item")),
+                result.getInt("sell_amount"),
+                readMeta(result.getString("buy_item_meta")),
+                readMeta(result.getString("sell_item_meta")));
+    }
+
+    private Material readMaterial(String shopId, String name) {
+        if (name == null) {
+            return null;
+        }
+        Material material = Material.getMaterial(name);
+        if (material == null) {
+            plugin.getLogger().warning("Invalid trading item type for shop " + shopId + ": " + name);
+        }
+        return material;
+    }
+
+    // Item meta is kept as YAML text, it is rarely used and never queried
+    private static String writeMeta(Map<String, Object> meta) {
+        if (meta.isEmpty()) {
+            return null;
+        }
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (Map.Entry<String, Object> entry : meta.entrySet()) {
+            yaml.set(entry.getKey(), entry.getValue());
+        }
+        return yaml.saveToString();
+    }
+
+    private static Map<String, Object> readMeta(String text) throws InvalidConfigurationException {
+        if (text == null || text.isEmpty()) {
+            return Map.of();
+        }
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.loadFromString(text);
+        return Collections.unmodifiableMap(yaml.getValues(false));
+    }
+}
@@ -0,0 +1,31 @@
+package de.flori.chestShop.storage;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent storage for shops.
+ * Except for {@link #exists()}, all methods are called from the save thread of {@link ShopSavePipeline}.
+ */
+public interface ShopRepository {
+
+    /**
+     * Returns true if the repository has been written at least once
+     */
+    boolean exists();
+
+    /**
+     * Reads all stored shops
+     */
+    List<ShopSnapshot> load() throws Exception;
+
+    /**
+     * Writes changed shops and deletes removed ones
+     */
+    void save(Collection<ShopSnapshot> changed, Collection<String> removed) throws Exception;
+
+    /**
+     * Releases all resources, called once when the plugin is disabled
+     */
+    void close();
+}
@@ -0,0 +1,205 @@
+package de.flori.chestShop.storage;
+
+import de.flori.chestShop.ChestShopPlugin;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes shop snapshots on a single background thread.
+ * Save requests that arrive while a write is still pending are merged into that write.
+ * Failed writes are retried with growing delay until they succeed or the plugin shuts down.
+ */
+public class ShopSavePipeline {
+
+    private final ChestShopPlugin plugin;
+    private final ShopRepository repository;
+    private static final long MAX_RETRY_DELAY_SECONDS = 60;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Object lock = new Object();
+    // Only used on the save thread
+    private long retryDelaySeconds = 1;
+
+    // Guarded by lock
+    private Map<String, ShopSnapshot> pendingChanges = new LinkedHashMap<>();
+    private Set<String> pendingRemovals = new HashSet<>();
+    private boolean writeScheduled;
+
+    public ShopSavePipeline(ChestShopPlugin plugin, ShopRepository repository) {
+        this.plugin = plugin;
+        this.repository = repository;
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "ChestShop-Save");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // A pending retry is replaced by the final write on shutdown
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    public ShopRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Reads the repository on the save thread, after all previously submitted writes have finished.
+     * Pending changes, also those waiting for a retry, are written first; if that fails the load is refused,
+     * it would return stale shops that the retry overwrites later.
+     */
+    public List<ShopSnapshot> load() {
+        try {
+            return executor.submit(() -> {
+                writePending();
+                synchronized (lock) {
+                    if (hasPending()) {
+                        throw new IllegalStateException("Unsaved shop changes are pending");
+                    }
+                }
+                return repository.load();
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading shops", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not load shops", e.getCause());
+        }
+    }
+
+    /**
+     * Queues changed and removed shops for writing. Returns immediately.
+     */
+    public void submit(Collection<ShopSnapshot> changed, Collection<String> removed) {
+        synchronized (lock) {
+            for (String shopId : removed) {
+                pendingChanges.remove(shopId);
+                pendingRemovals.add(shopId);
+            }
+            for (ShopSnapshot snapshot : changed) {
+                pendingRemovals.remove(snapshot.id());
+                pendingChanges.put(snapshot.id(), snapshot);
+            }
+
+            if (writeScheduled || !hasPending()) {
+                // The queued write (or retry) has not started yet and will pick these changes up
+                return;
+            }
+            writeScheduled = true;
+        }
+
+        executor.execute(this::writePending);
+    }
+
+    /**
+     * Blocks until all writes submitted so far have finished, a write waiting for its retry is done right away
+     *
+     * @return true if nothing is left unsaved
+     */
+    public boolean awaitWrites() {
+        try {
+            return executor.submit(() -> {
+                writePending();
+                synchronized (lock) {
+                    return !hasPending();
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not wait for shop saving", e.getCause());
+        }
+    }
+
+    /**
+     * Stops accepting work, writes everything still pending one last time and waits at most the given time
+     *
+     * @return true if all shops were written in time
+     */
+    public boolean shutdown(long timeoutSeconds) {
+        Future<Boolean> finalWrite = executor.submit(() -> {
+            writePending();
+            int unsaved;
+            synchronized (lock) {
+                unsaved = pendingChanges.size() + pendingRemovals.size();
+            }
+            repository.close();
+            if (unsaved > 0) {
+                plugin.getLogger().severe(unsaved + " shop changes could not be saved and are lost!");
+            }
+            return unsaved == 0;
+        });
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                return finalWrite.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.getLogger().severe("Error while closing the shop store: " + e.getCause().getMessage());
+            return false;
+        }
+        plugin.getLogger().severe("Shop saving did not finish within " + timeoutSeconds + " seconds, latest changes may be lost!");
+        return false;
+    }
+
+    private void writePending() {
+        Map<String, ShopSnapshot> changes;
+        Set<String> removals;
+
+        synchronized (lock) {
+            changes = pendingChanges;
+            removals = pendingRemovals;
+            pendingChanges = new LinkedHashMap<>();
+            pendingRemovals = new HashSet<>();
+            writeScheduled = false;
+        }
+
+        if (changes.isEmpty() && removals.isEmpty()) {
+            return;
+        }
+        try {
+            repository.save(changes.values(), removals);
+            retryDelaySeconds = 1;
+            plugin.getLogger().info("Saved " + changes.size() + " changed and " + removals.size() + " removed shops");
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error while saving shops, the write will be retried: " + e.getMessage());
+            requeue(changes, removals);
+        }
+    }
+
+    /**
+     * Puts a failed write back into the queue and schedules a retry, newer changes submitted in the meantime win
+     */
+    private void requeue(Map<String, ShopSnapshot> changes, Set<String> removals) {
+        synchronized (lock) {
+            for (String shopId : removals) {
+                if (!pendingChanges.containsKey(shopId)) {
+                    pendingRemovals.add(shopId);
+                }
+            }
+            for (ShopSnapshot snapshot : changes.values()) {
+                if (!pendingRemovals.contains(snapshot.id())) {
+                    pendingChanges.putIfAbsent(snapshot.id(), snapshot);
+                }
+            }
+            if (writeScheduled || executor.isShutdown()) {
+                // A queued write picks them up, or shutdown() writes them one last time
+                return;
+            }
+            writeScheduled = true;
+        }
+
+        executor.schedule(this::writePending, retryDelaySeconds, TimeUnit.SECONDS);
+        retryDelaySeconds = Math.min(MAX_RETRY_DELAY_SECONDS, retryDelaySeconds * 2);
+    }
+
+    // Caller holds lock
+    private boolean hasPending() {
+        return !pendingChanges.isEmpty() || !pendingRemovals.isEmpty();
+    }
+}
@@ -0,0 +1,217 @@
+package de.flori.chestShop.storage;
+
+import de.flori.chestShop.models.Shop;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Immutable copy of all persisted shop fields.
+ * Taken on the main thread so that serialization can happen on the save thread.
+ */
+public record ShopSnapshot(
+        String id,
+        UUID ownerId,
+        String ownerName,
+        String chestWorld, int chestX, int chestY, int chestZ,
+        String signWorld, int signX, int signY, int signZ,
+        Material item,
+        int amount,
+        double buyPrice,
+        double sellPrice,
+        boolean active,
+        long created,
+        long lastUsed,
+        boolean itemTradingShop,
+        Material buyItemType,
+        int buyItemAmount,
+        Material sellItemType,
+        int sellItemAmount,
+        Map<String, Object> buyItemMeta,
+        Map<String, Object> sellItemMeta) {
+
+    public static ShopSnapshot of(Shop shop) {
+        Location chest = shop.getChestLocation();
+        Location sign = shop.getSignLocation();
+
+        return new ShopSnapshot(
+                shop.getId(),
+                shop.getOwnerId(),
+                shop.getOwnerName(),
+                worldName(chest), chest != null ? chest.getBlockX() : 0, chest != null ? chest.getBlockY() : 0, chest != null ? chest.getBlockZ() : 0,
+                worldName(sign), sign != null ? sign.getBlockX() : 0, sign != null ? sign.getBlockY() : 0, sign != null ? sign.getBlockZ() : 0,
+                shop.getItem(),
+                shop.getAmount(),
+                shop.getBuyPrice(),
+                shop.getSellPrice(),
+                shop.isActive(),
+                shop.getCreated(),
+                shop.getLastUsed(),
+                shop.isItemTradingShop(),
+                shop.getBuyItemType(),
+                shop.getBuyItemAmount(),
+                shop.getSellItemType(),
+                shop.getSellItemAmount(),
+                copyMeta(shop.isItemTradingShop() ? shop.getBuyItemMeta() : null),
+                copyMeta(shop.isItemTradingShop() ? shop.getSellItemMeta() : null));
+    }
+
+    /**
+     * Reads a shop in the shops.yml format. Invalid trading items are logged and left empty.
+     *
+     * @throws IllegalArgumentException if a required value is missing or invalid
+     */
+    public static ShopSnapshot read(String shopId, ConfigurationSection section, Logger logger) {
+        String ownerId = section.getString("owner-id");
+        if (ownerId == null) {
+            throw new IllegalArgumentException("missing owner-id");
+        }
+
+        int[] chest = new int[3];
+        int[] sign = new int[3];
+        String chestWorld = readLocation(section, "chest-location", chest);
+        String signWorld = readLocation(section, "sign-location", sign);
+
+        boolean itemTrading = section.getBoolean("item-trading.enabled", false);
+        Material buyItemType = null;
+        Material sellItemType = null;
+        if (itemTrading) {
+            buyItemType = readTradingItem(shopId, section.getString("item-trading.buy-item"), "buy", logger);
+            sellItemType = readTradingItem(shopId, section.getString("item-trading.sell-item"), "sell", logger);
+        }
+
+        return new ShopSnapshot(
+                shopId,
+                UUID.fromString(ownerId),
+                section.getString("owner-name"),
+                chestWorld, chest[0], chest[1], chest[2],
+                signWorld, sign[0], sign[1], sign[2],
+                Material.valueOf(section.getString("item")),
+                section.getInt("amount"),
+                section.getDouble("buy-price"),
+                section.getDouble("sell-price"),
+                section.getBoolean("active", true),
+                section.getLong("created"),
+                section.getLong("last-used"),
+                itemTrading,
+                buyItemType,
+                itemTrading ? section.getInt("item-trading.buy-amount", 1) : 0,
+                sellItemType,
+                itemTrading ? section.getInt("item-trading.sell-amount", 1) : 0,
+                itemTrading ? readMeta(section.getConfigurationSection("item-trading.buy-item-meta")) : Map.of(),
+                itemTrading ? readMeta(section.getConfigurationSection("item-trading.sell-item-meta")) : Map.of());
+    }
+
+    /**
+     * Writes the snapshot in the shops.yml format into the given section
+     */
+    public void writeTo(ConfigurationSection section) {
+        section.set("owner-id", ownerId.toString());
+        section.set("owner-name", ownerName);
+        section.set("chest-location", locationMap(chestWorld, chestX, chestY, chestZ));
+        section.set("sign-location", locationMap(signWorld, signX, signY, signZ));
+        section.set("item", item.name());
+        section.set("amount", amount);
+        section.set("buy-price", buyPrice);
+        section.set("sell-price", sellPrice);
+        section.set("active", active);
+        section.set("created", created);
+        section.set("last-used", lastUsed);
+
+        if (!itemTradingShop) {
+            section.set("item-trading.enabled", false);
+            return;
+        }
+
+        section.set("item-trading.enabled", true);
+        if (buyItemType != null) {
+            section.set("item-trading.buy-item", buyItemType.name());
+        }
+        section.set("item-trading.buy-amount", buyItemAmount);
+
+        if (sellItemType != null) {
+            section.set("item-trading.sell-item", sellItemType.name());
+        }
+        section.set("item-trading.sell-amount", sellItemAmount);
+
+        for (Map.Entry<String, Object> entry : buyItemMeta.entrySet()) {
+            section.set("item-trading.buy-item-meta." + entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Object> entry : sellItemMeta.entrySet()) {
+            section.set("item-trading.sell-item-meta." + entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Reads a location stored either as section or as plain map, returns the world name
+     */
+    private static String readLocation(ConfigurationSection parent, String key, int[] coordinates) {
+        ConfigurationSection section = parent.getConfigurationSection(key);
+        String worldName;
+
+        if (section != null) {
+            worldName = section.getString("world");
+            coordinates[0] = section.getInt("x");
+            coordinates[1] = section.getInt("y");
+            coordinates[2] = section.getInt("z");
+        } else if (parent.get(key) instanceof Map<?, ?> map) {
+            worldName = (String) map.get("world");
+            coordinates[0] = ((Number) map.get("x")).intValue();
+            coordinates[1] = ((Number) map.get("y")).intValue();
+            coordinates[2] = ((Number) map.get("z")).intValue();
+        } else {
+            throw new IllegalArgumentException("invalid " + key);
+        }
+
+        if (worldName == null || worldName.isEmpty()) {
+            throw new IllegalArgumentException("missing world in " + key);
+        }
+        return worldName;
+    }
+
+    private static Material readTradingItem(String shopId, String name, String side, Logger logger) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Material.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            logger.warning("Invalid " + side + " item type for shop " + shopId + ": " + name);
+            return null;
+        }
+    }
+
+    private static Map<String, Object> readMeta(ConfigurationSection section) {
+        if (section == null) {
+            return Map.of();
+        }
+        Map<String, Object> meta = new HashMap<>();
+        for (String key : section.getKeys(false)) {
+            meta.put(key, section.get(key));
+        }
+        return copyMeta(meta);
+    }
+
+    private static String worldName(Location location) {
+        return location != null && location.getWorld() != null ? location.getWorld().getName() : "world";
+    }
+
+    private static Map<String, Object> copyMeta(Map<String, Object> meta) {
+        return meta == null || meta.isEmpty() ? Map.of() : Collections.unmodifiableMap(new HashMap<>(meta));
+    }
+
+    private static Map<String, Object> locationMap(String world, int x, int y, int z) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("world", world);
+        map.put("x", x);
+        map.put("y", y);
+        map.put("z", z);
+        return map;
+    }
+}
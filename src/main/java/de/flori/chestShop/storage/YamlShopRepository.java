@@ -0,0 +1,226 @@
+package de.flori.chestShop.storage;
+
+import de.flori.chestShop.ChestShopPlugin;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Stores shops in one YAML file per world region (512x512 blocks) instead of a single shops.yml.
+ * Only regions that contain changed or removed shops are written back to disk.
+ */
+public class YamlShopRepository implements ShopRepository {
+
+    // 2^9 = 512 blocks per region file, same grid as the Minecraft region files
+    private static final int REGION_SHIFT = 9;
+
+    private final ChestShopPlugin plugin;
+    private final File directory;
+    private final Map<String, YamlConfiguration> regions = new HashMap<>();
+    private final Map<String, String> shopRegions = new HashMap<>();
+    private final Set<String> dirtyRegions = new HashSet<>();
+
+    public YamlShopRepository(ChestShopPlugin plugin) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "shops");
+    }
+
+    @Override
+    public boolean exists() {
+        return directory.isDirectory();
+    }
+
+    /**
+     * Reads all region files. Files are parsed in parallel on the common fork-join pool,
+     * the results are merged on the calling thread.
+     */
+    @Override
+    public List<ShopSnapshot> load() {
+        regions.clear();
+        shopRegions.clear();
+        dirtyRegions.clear();
+
+        List<File> regionFiles = new ArrayList<>();
+        File[] worldDirectories = directory.listFiles(File::isDirectory);
+        if (worldDirectories != null) {
+            for (File worldDirectory : worldDirectories) {
+                File[] files = worldDirectory.listFiles((dir, name) -> name.endsWith(".yml"));
+                if (files != null) {
+                    regionFiles.addAll(Arrays.asList(files));
+                }
+            }
+        }
+
+        List<LoadedRegion> loaded = regionFiles.parallelStream()
+                .map(this::loadRegion)
+                .toList();
+
+        List<ShopSnapshot> snapshots = new ArrayList<>();
+        for (LoadedRegion region : loaded) {
+            regions.put(region.key(), region.config());
+            for (String shopId : region.shopIds()) {
+                shopRegions.put(shopId, region.key());
+            }
+            snapshots.addAll(region.snapshots());
+        }
+
+        return snapshots;
+    }
+
+    private LoadedRegion loadRegion(File regionFile) {
+        String fileName = regionFile.getName();
+        String regionKey = regionFile.getParentFile().getName() + "/" + fileName.substring(0, fileName.length() - 4);
+
+        YamlConfiguration region = YamlConfiguration.loadConfiguration(regionFile);
+        List<String> shopIds = new ArrayList<>();
+        List<ShopSnapshot> snapshots = new ArrayList<>();
+
+        ConfigurationSection shopsSection = region.getConfigurationSection("shops");
+        if (shopsSection != null) {
+            for (String shopId : shopsSection.getKeys(false)) {
+                ConfigurationSection shopSection = shopsSection.getConfigurationSection(shopId);
+                if (shopSection == null) continue;
+
+                // Also keep broken entries assigned to the region, so they are not lost on the next write
+                shopIds.add(shopId);
+                try {
+                    snapshots.add(ShopSnapshot.read(shopId, shopSection, plugin.getLogger()));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Error loading shop " + shopId + ": " + e.getMessage());
+                }
+            }
+        }
+
+        return new LoadedRegion(regionKey, region, shopIds, snapshots);
+    }
+
+    @Override
+    public void save(Collection<ShopSnapshot> changed, Collection<String> removed) throws IOException {
+        for (String shopId : removed) {
+            delete(shopId);
+        }
+        for (ShopSnapshot snapshot : changed) {
+            snapshot.writeTo(stage(snapshot));
+        }
+        flush();
+    }
+
+    @Override
+    public void close() {
+        regions.clear();
+        shopRegions.clear();
+    }
+
+    /**
+     * Returns the (empty) section a shop has to be written into and marks its region for saving.
+     * Any previous entry of the shop is removed.
+     */
+    private ConfigurationSection stage(ShopSnapshot shop) {
+        String regionKey = regionKey(shop.chestWorld(), shop.chestX(), shop.chestZ());
+        String previousKey = shopRegions.put(shop.id(), regionKey);
+
+        if (previousKey != null && !previousKey.equals(regionKey)) {
+            YamlConfiguration previous = regions.get(previousKey);
+            if (previous != null) {
+                previous.set("shops." + shop.id(), null);
+                dirtyRegions.add(previousKey);
+            }
+        }
+
+        YamlConfiguration region = regions.computeIfAbsent(regionKey, key -> new YamlConfiguration());
+        dirtyRegions.add(regionKey);
+        return region.createSection("shops." + shop.id());
+    }
+
+    /**
+     * Removes a shop from its region and marks the region for saving
+     */
+    private void delete(String shopId) {
+        String regionKey = shopRegions.remove(shopId);
+        if (regionKey == null) {
+            return;
+        }
+
+        YamlConfiguration region = regions.get(regionKey);
+        if (region != null) {
+            region.set("shops." + shopId, null);
+            dirtyRegions.add(regionKey);
+        }
+    }
+
+    /**
+     * Writes all changed regions to disk
+     *
+     * @throws IOException naming the regions that could not be written, they stay dirty
+     */
+    private void flush() throws IOException {
+        Iterator<String> iterator = dirtyRegions.iterator();
+        List<String> failedRegions = new ArrayList<>();
+
+        while (iterator.hasNext()) {
+            String regionKey = iterator.next();
+            YamlConfiguration region = regions.get(regionKey);
+            File file = new File(directory, regionKey + ".yml");
+            ConfigurationSection shopsSection = region != null ? region.getConfigurationSection("shops") : null;
+
+            try {
+                if (shopsSection == null || shopsSection.getKeys(false).isEmpty()) {
+                    regions.remove(regionKey);
+                    if (file.exists() && !file.delete()) {
+                        plugin.getLogger().warning("Could not delete empty shop region " + regionKey);
+                    }
+                } else {
+                    writeAtomically(file, region.saveToString());
+                }
+                iterator.remove();
+            } catch (IOException e) {
+                // Region stays dirty and is retried on the next save
+                plugin.getLogger().severe("Could not save shop region " + regionKey + ": " + e.getMessage());
+                failedRegions.add(regionKey);
+            }
+        }
+
+        if (!failedRegions.isEmpty()) {
+            throw new IOException("Could not save shop regions " + String.join(", ", failedRegions));
+        }
+    }
+
+    /**
+     * Writes to a temporary file, forces it to disk and renames it over the target,
+     * so a crash during the save never leaves a half written region behind
+     */
+    private void writeAtomically(File file, String content) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        Files.createDirectories(target.getParent());
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private String regionKey(String worldName, int x, int z) {
+        return worldName + "/r." + (x >> REGION_SHIFT) + "." + (z >> REGION_SHIFT);
+    }
+
+    private record LoadedRegion(String key, YamlConfiguration config, List<String> shopIds, List<ShopSnapshot> snapshots) {
+    }
+}
@@ -1,23 +1,58 @@
 package de.flori.chestShop.utils;
 
 import de.flori.chestShop.ChestShopPlugin;
+import de.flori.chestShop.config.ChestShopSettings;
+import de.flori.chestShop.holograms.HologramContent;
+import de.flori.chestShop.holograms.HologramViewTracker;
+import de.flori.chestShop.holograms.HologramWorkQueue;
+import de.flori.chestShop.index.BlockKey;
 import de.flori.chestShop.models.Shop;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
 import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.entity.TextDisplay;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.util.Vector;
+import org.bukkit.persistence.PersistentDataType;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 
+/**
+ * Shop holograms built on display entities: one non-persistent TextDisplay with the info and price lines
+ * and, if enabled, one ItemDisplay with the shop item. Display entities have no AI, physics or hitbox
+ * and are not saved with the chunk. They exist only while the chunk of the chest is loaded: they are spawned
+ * on chunk load and removed on chunk unload. In virtual mode (holograms.mode: virtual) the {@link HologramViewTracker}
+ * sends them only to players in range instead. Bulk work goes through the {@link HologramWorkQueue}.
+ * Every display carries the id of its shop in its PersistentDataContainer, so strays in loaded chunks
+ * can be told apart from the holograms tracked here (see {@link #reconcileEntities}).
+ */
 public class HologramUtil {
     
-    private static final Map<String, ArmorStand> textHolograms = new HashMap<>();
-    private static final Map<String, Item> itemHolograms = new HashMap<>();
-    private static final Map<String, ArmorStand> priceHolograms = new HashMap<>();
+    private static final Map<String, TextDisplay> textDisplays = new HashMap<>();
+    private static final Map<String, ItemDisplay> itemDisplays = new HashMap<>();
+    private static boolean initialized = false;
+    private static NamespacedKey hologramKey;
+    private static NamespacedKey legacyCleanedKey;
+    
+    // Item names in the price line are abbreviated to this length
+    private static final int HOLOGRAM_ITEM_NAME_LENGTH = 12;
+    // Heights above the chest block: the text grows upwards from its position, above the item
+    private static final double ITEM_HEIGHT = 1.4;
+    private static final double TEXT_HEIGHT_ABOVE_ITEM = 1.9;
+    private static final double TEXT_HEIGHT = 1.2;
     
     /**
      * Creates or updates a holographic display for a shop
@@ -29,7 +64,8 @@ public class HologramUtil {
             return;
         }
         
-        if (!plugin.getConfigManager().getConfig().getBoolean("holograms.enabled", true)) {
+        ChestShopSettings settings = plugin.getSettings();
+        if (!settings.hologramsEnabled()) {
             return;
         }
         
@@ -41,137 +77,313 @@ public class HologramUtil {
         
         removeShopHologram(shop.getId());
         
-        Location chestLoc = shop.getChestLocation().clone().add(0.5, 1.5, 0.5);
+        // Virtual holograms are sent by the view tracker once a player is in range
+        if (settings.hologramsVirtual()) {
+            return;
+        }
         
-        // Create text hologram (shop info)
-        if (plugin.getConfigManager().getConfig().getBoolean("holograms.show-text", true)) {
-            ArmorStand textStand = createTextHologram(chestLoc.clone().add(0, 0.5, 0), 
-                formatShopText(shop, plugin), shop.getId() + "_text");
-            textHolograms.put(shop.getId(), textStand);
+        // Spawning would load the chunk, the hologram follows when the chunk is loaded
+        Location chest = shop.getChestLocation();
+        World world = chest.getWorld();
+        if (world == null || !world.isChunkLoaded(chest.getBlockX() >> 4, chest.getBlockZ() >> 4)) {
+            return;
         }
         
-        // Create item hologram (floating item)
-        if (plugin.getConfigManager().getConfig().getBoolean("holograms.show-item", true)) {
-            Item itemDisplay = createItemHologram(chestLoc.clone(), 
-                new ItemStack(shop.getItem(), shop.getAmount()), shop.getId() + "_item");
-            itemHolograms.put(shop.getId(), itemDisplay);
+        HologramContent content = buildContent(shop, plugin);
+        
+        // Info and price lines share one text display
+        if (content.text() != null) {
+            textDisplays.put(shop.getId(), createTextDisplay(shop.getId(), content.textLocation(), content.text(), true));
         }
         
-        // Create price hologram
-        if (plugin.getConfigManager().getConfig().getBoolean("holograms.show-prices", true)) {
-            ArmorStand priceStand = createTextHologram(chestLoc.clone().add(0, -0.5, 0),
-                formatPriceText(shop, plugin), shop.getId() + "_price");
-            priceHolograms.put(shop.getId(), priceStand);
+        // Floating shop item
+        if (content.item() != null) {
+            itemDisplays.put(shop.getId(), createItemDisplay(shop.getId(), content.itemLocation(), content.item(), true));
         }
     }
     
+    /**
+     * Text and item of the shop hologram with their positions, as configured
+     */
+    public static HologramContent buildContent(Shop shop, ChestShopPlugin plugin) {
+        ChestShopSettings settings = plugin.getSettings();
+        Location chestLoc = shop.getChestLocation().clone().add(0.5, 0, 0.5);
+        
+        Location textLocation = null;
+        String text = null;
+        if (settings.hologramShowText() || settings.hologramShowPrices()) {
+            double height = settings.hologramShowItem() ? TEXT_HEIGHT_ABOVE_ITEM : TEXT_HEIGHT;
+            textLocation = chestLoc.clone().add(0, height, 0);
+            text = formatDisplayText(shop, plugin);
+        }
+        
+        Location itemLocation = null;
+        ItemStack item = null;
+        if (settings.hologramShowItem()) {
+            itemLocation = chestLoc.clone().add(0, ITEM_HEIGHT, 0);
+            item = new ItemStack(shop.getItem(), shop.getAmount());
+        }
+        
+        return new HologramContent(shop.getId(), textLocation, text, itemLocation, item);
+    }
+    
     /**
      * Removes holographic display for a shop
      */
     public static void removeShopHologram(String shopId) {
-        // Remove text hologram
-        ArmorStand textStand = textHolograms.remove(shopId);
-        if (textStand != null && !textStand.isDead()) {
-            textStand.remove();
+        removeDisplays(shopId);
+        
+        HologramViewTracker tracker = viewTracker();
+        if (tracker != null) {
+            tracker.removeShop(shopId);
+        }
+    }
+    
+    private static void removeDisplays(String shopId) {
+        TextDisplay textDisplay = textDisplays.remove(shopId);
+        if (textDisplay != null && !textDisplay.isDead()) {
+            textDisplay.remove();
         }
         
-        // Remove item hologram
-        Item itemDisplay = itemHolograms.remove(shopId);
+        ItemDisplay itemDisplay = itemDisplays.remove(shopId);
         if (itemDisplay != null && !itemDisplay.isDead()) {
             itemDisplay.remove();
         }
+    }
+    
+    /**
+     * Spawns the holograms of the shops whose chest is in the chunk (chunk load)
+     */
+    public static void loadChunkHolograms(Chunk chunk, ChestShopPlugin plugin) {
+        ChestShopSettings settings = plugin.getSettings();
+        if (!settings.hologramsEnabled() || settings.hologramsVirtual() || plugin.getShopManager() == null) {
+            return;
+        }
+        List<Shop> shops = new ArrayList<>();
+        for (Shop shop : plugin.getShopManager().getShopsInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            if (isChestInChunk(shop, chunk)) {
+                shops.add(shop);
+            }
+        }
+        plugin.getHologramWorkQueue().submitAll(shops, HologramWorkQueue.Job.CREATE);
+    }
+    
+    /**
+     * Removes the holograms of the shops whose chest is in the chunk (chunk unload)
+     */
+    public static void unloadChunkHolograms(Chunk chunk, ChestShopPlugin plugin) {
+        if (plugin.getShopManager() == null) {
+            return;
+        }
+        for (Shop shop : plugin.getShopManager().getShopsInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            if (isChestInChunk(shop, chunk)) {
+                removeDisplays(shop.getId());
+            }
+        }
+    }
+    
+    /**
+     * Removes stray hologram entities loaded with the chunk in O(entities in the chunk): displays tagged
+     * with a shop id that are not tracked here. With holograms.cleanup-legacy, armor stands and items of
+     * the former hologram implementation above a shop chest are removed as well, once per chunk; the chunk
+     * is marked afterwards so later loads never touch such entities again.
+     *
+     * @return number of removed entities
+     */
+    public static int reconcileEntities(Chunk chunk, Collection<? extends Entity> entities, ChestShopPlugin plugin) {
+        if (plugin.getShopManager() == null || entities.isEmpty()) {
+            return 0;
+        }
         
-        // Remove price hologram
-        ArmorStand priceStand = priceHolograms.remove(shopId);
-        if (priceStand != null && !priceStand.isDead()) {
-            priceStand.remove();
+        Set<Long> chests = legacySweepChests(chunk, plugin);
+        int removed = 0;
+        for (Entity entity : entities) {
+            if (entity instanceof Display display) {
+                String shopId = display.getPersistentDataContainer().get(hologramKey(), PersistentDataType.STRING);
+                if (shopId != null && textDisplays.get(shopId) != display && itemDisplays.get(shopId) != display) {
+                    display.remove();
+                    removed++;
+                }
+            } else if (!chests.isEmpty() && (entity instanceof ArmorStand || entity instanceof Item) && isLegacyHologram(entity, chests)) {
+                Location location = entity.getLocation();
+                plugin.getLogger().info("Removed legacy hologram " + entity.getType() + " at " + location.getBlockX() + ", "
+                    + location.getBlockY() + ", " + location.getBlockZ() + " in " + chunk.getWorld().getName());
+                entity.remove();
+                removed++;
+            }
         }
+        
+        if (!chests.isEmpty()) {
+            chunk.getPersistentDataContainer().set(legacyCleanedKey(plugin), PersistentDataType.BYTE, (byte) 1);
+        }
+        if (removed > 0) {
+            plugin.getLogger().info("Removed " + removed + " orphaned hologram entities in chunk " + chunk.getX() + ", "
+                + chunk.getZ() + " of " + chunk.getWorld().getName());
+        }
+        return removed;
+    }
+    
+    /**
+     * Chest positions of the shops in the chunk if it still needs the legacy sweep, otherwise empty
+     */
+    private static Set<Long> legacySweepChests(Chunk chunk, ChestShopPlugin plugin) {
+        if (!plugin.getSettings().hologramCleanupLegacy()
+                || chunk.getPersistentDataContainer().has(legacyCleanedKey(plugin), PersistentDataType.BYTE)) {
+            return Set.of();
+        }
+        Set<Long> chests = new HashSet<>();
+        for (Shop shop : plugin.getShopManager().getShopsInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            if (isChestInChunk(shop, chunk)) {
+                Location chest = shop.getChestLocation();
+                chests.add(BlockKey.pack(chest.getBlockX(), chest.getBlockY(), chest.getBlockZ()));
+            }
+        }
+        return chests;
+    }
+    
+    private static NamespacedKey legacyCleanedKey(ChestShopPlugin plugin) {
+        if (legacyCleanedKey == null) {
+            legacyCleanedKey = new NamespacedKey(plugin, "legacy_holograms_cleaned");
+        }
+        return legacyCleanedKey;
+    }
+    
+    // Text stands (1.0 and 2.0) and the dropped item (1.5) of the former implementation, above the chest
+    private static boolean isLegacyHologram(Entity entity, Set<Long> chests) {
+        if (entity instanceof ArmorStand stand) {
+            if (!stand.isMarker() || stand.isVisible()) return false;
+        } else if (((Item) entity).getPickupDelay() < Short.MAX_VALUE || entity.hasGravity()) {
+            return false;
+        }
+        Location location = entity.getLocation();
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        return chests.contains(BlockKey.pack(x, y - 1, z)) || chests.contains(BlockKey.pack(x, y - 2, z));
+    }
+    
+    // Shops are bucketed by chest and sign chunk, the hologram belongs to the chest chunk
+    private static boolean isChestInChunk(Shop shop, Chunk chunk) {
+        Location chest = shop.getChestLocation();
+        return chest != null && chest.getWorld() == chunk.getWorld()
+            && chest.getBlockX() >> 4 == chunk.getX() && chest.getBlockZ() >> 4 == chunk.getZ();
     }
     
     /**
      * Updates holographic display for a shop
      */
     public static void updateShopHologram(Shop shop, ChestShopPlugin plugin) {
-        if (!plugin.getConfigManager().getConfig().getBoolean("holograms.enabled", true)) {
+        if (!plugin.getSettings().hologramsEnabled()) {
             return;
         }
         
-        // Update text hologram
-        ArmorStand textStand = textHolograms.get(shop.getId());
-        if (textStand != null && !textStand.isDead()) {
-            textStand.setCustomName(formatShopText(shop, plugin));
+        if (plugin.getSettings().hologramsVirtual()) {
+            plugin.getHologramViewTracker().updateShop(shop);
+            return;
         }
         
-        // Update item hologram
-        Item itemDisplay = itemHolograms.get(shop.getId());
-        if (itemDisplay != null && !itemDisplay.isDead()) {
-            itemDisplay.setItemStack(new ItemStack(shop.getItem(), shop.getAmount()));
+        // Only changed text is sent to the clients
+        TextDisplay textDisplay = textDisplays.get(shop.getId());
+        if (textDisplay != null && !textDisplay.isDead()) {
+            String text = formatDisplayText(shop, plugin);
+            if (!text.equals(textDisplay.getText())) {
+                textDisplay.setText(text);
+            }
         }
         
-        // Update price hologram
-        ArmorStand priceStand = priceHolograms.get(shop.getId());
-        if (priceStand != null && !priceStand.isDead()) {
-            priceStand.setCustomName(formatPriceText(shop, plugin));
+        ItemDisplay itemDisplay = itemDisplays.get(shop.getId());
+        if (itemDisplay != null && !itemDisplay.isDead()) {
+            ItemStack current = itemDisplay.getItemStack();
+            if (current == null || current.getType() != shop.getItem() || current.getAmount() != shop.getAmount()) {
+                itemDisplay.setItemStack(new ItemStack(shop.getItem(), shop.getAmount()));
+            }
         }
     }
     
     /**
-     * Removes all holograms (for plugin disable)
+     * Re-renders the text of all spawned holograms, spread over several ticks (formats changed on reload)
      */
-    public static void removeAllHolograms() {
-        // Remove all text holograms
-        for (ArmorStand stand : textHolograms.values()) {
-            if (stand != null && !stand.isDead()) {
-                stand.remove();
+    public static void refreshAllHolograms(ChestShopPlugin plugin) {
+        if (plugin.getShopManager() == null || !plugin.getSettings().hologramsEnabled() || plugin.getSettings().hologramsVirtual()) {
+            return;
+        }
+        Set<String> shopIds = new HashSet<>(textDisplays.keySet());
+        shopIds.addAll(itemDisplays.keySet());
+        List<Shop> shops = new ArrayList<>();
+        for (String shopId : shopIds) {
+            Shop shop = plugin.getShopManager().getShop(shopId);
+            if (shop != null) {
+                shops.add(shop);
             }
         }
-        textHolograms.clear();
+        plugin.getHologramWorkQueue().submitAll(shops, HologramWorkQueue.Job.UPDATE);
+    }
+    
+    /**
+     * Removes all holograms (for plugin disable), virtual holograms are no longer sent until recreateAllHolograms
+     */
+    public static void removeAllHolograms() {
+        ChestShopPlugin plugin = ChestShopPlugin.getInstance();
+        if (plugin != null && plugin.getHologramWorkQueue() != null) {
+            plugin.getHologramWorkQueue().clear();
+        }
+        HologramViewTracker tracker = viewTracker();
+        if (tracker != null) {
+            tracker.stop();
+        }
         
-        // Remove all item holograms
-        for (Item item : itemHolograms.values()) {
-            if (item != null && !item.isDead()) {
-                item.remove();
+        for (TextDisplay display : textDisplays.values()) {
+            if (display != null && !display.isDead()) {
+                display.remove();
             }
         }
-        itemHolograms.clear();
+        textDisplays.clear();
         
-        // Remove all price holograms
-        for (ArmorStand stand : priceHolograms.values()) {
-            if (stand != null && !stand.isDead()) {
-                stand.remove();
+        for (ItemDisplay display : itemDisplays.values()) {
+            if (display != null && !display.isDead()) {
+                display.remove();
             }
         }
-        priceHolograms.clear();
+        itemDisplays.clear();
     }
     
     /**
-     * Recreates all holograms (for config reload)
+     * Recreates all holograms (for config reload), spread over several ticks. The old holograms stay
+     * until they are replaced; progress and completion are reported to the sender.
      */
-    public static void recreateAllHolograms(ChestShopPlugin plugin) {
-        removeAllHolograms();
-        
+    public static void recreateAllHolograms(ChestShopPlugin plugin, CommandSender reporter) {
         // Check if ShopManager is initialized
         if (plugin.getShopManager() == null) {
+            removeAllHolograms();
             plugin.getLogger().info("Cannot recreate holograms: ShopManager not yet initialized");
             return;
         }
         
-        if (!plugin.getConfigManager().getConfig().getBoolean("holograms.enabled", true)) {
+        ChestShopSettings settings = plugin.getSettings();
+        if (!settings.hologramsEnabled() || settings.hologramsVirtual()) {
+            removeAllHolograms();
+            if (settings.hologramsEnabled()) {
+                plugin.getHologramViewTracker().start();
+            }
+            reporter.sendMessage(plugin.getConfigManager().getMessage("admin.holograms-reloaded"));
             return;
         }
         
-        for (Shop shop : plugin.getShopManager().getAllShops()) {
-            try {
-                // Additional null safety check
-                if (shop.getChestLocation() != null) {
-                    createShopHologram(shop, plugin);
-                } else {
-                    plugin.getLogger().warning("Skipping hologram creation for shop " + shop.getId() + ": invalid location");
-                }
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to create hologram for shop " + shop.getId() + ": " + e.getMessage());
-            }
+        HologramWorkQueue workQueue = plugin.getHologramWorkQueue();
+        workQueue.clear();
+        plugin.getHologramViewTracker().stop();
+        
+        List<Shop> shops = loadedShops(plugin);
+        Set<String> stale = new HashSet<>(textDisplays.keySet());
+        stale.addAll(itemDisplays.keySet());
+        for (Shop shop : shops) {
+            stale.remove(shop.getId());
         }
+        for (String shopId : stale) {
+            workQueue.submitRemove(shopId);
+        }
+        workQueue.submitAll(shops, HologramWorkQueue.Job.CREATE, reporter,
+            () -> reporter.sendMessage(plugin.getConfigManager().getMessage("admin.holograms-reloaded")));
     }
     
     /**
@@ -184,164 +396,169 @@ public class HologramUtil {
             return;
         }
         
-        if (!plugin.getConfigManager().getConfig().getBoolean("holograms.enabled", true)) {
+        initialized = true;
+        
+        // Chunks loaded before the plugin missed EntitiesLoadEvent, like the event this runs in every mode
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                if (plugin.getShopManager().hasShopsInChunk(world, chunk.getX(), chunk.getZ())) {
+                    reconcileEntities(chunk, Arrays.asList(chunk.getEntities()), plugin);
+                }
+            }
+        }
+        
+        if (!plugin.getSettings().hologramsEnabled()) {
             plugin.getLogger().info("Holograms are disabled in config");
             return;
         }
         
-        int successCount = 0;
-        int errorCount = 0;
+        if (plugin.getSettings().hologramsVirtual()) {
+            plugin.getLogger().info("Virtual holograms are sent to players within " + plugin.getSettings().hologramViewDistance() + " blocks");
+            return;
+        }
         
-        for (Shop shop : plugin.getShopManager().getAllShops()) {
-            try {
-                if (shop.getChestLocation() != null) {
-                    createShopHologram(shop, plugin);
-                    successCount++;
-                } else {
-                    plugin.getLogger().warning("Skipping hologram for shop " + shop.getId() + ": invalid location");
-                    errorCount++;
+        List<Shop> shops = loadedShops(plugin);
+        if (shops.isEmpty()) {
+            return;
+        }
+        plugin.getLogger().info("Creating " + shops.size() + " holograms in loaded chunks, the remaining shops follow when their chunks load");
+        plugin.getHologramWorkQueue().submitAll(shops, HologramWorkQueue.Job.CREATE, null,
+            () -> plugin.getLogger().info("Hologram initialization complete: " + shops.size() + " shops"));
+    }
+    
+    /**
+     * Shops whose chest is in a currently loaded chunk, found without loading any chunk
+     */
+    private static List<Shop> loadedShops(ChestShopPlugin plugin) {
+        List<Shop> shops = new ArrayList<>();
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                for (Shop shop : plugin.getShopManager().getShopsInChunk(world, chunk.getX(), chunk.getZ())) {
+                    if (isChestInChunk(shop, chunk)) {
+                        shops.add(shop);
+                    }
                 }
-            } catch (Exception e) {
-                plugin.getLogger().severe("Failed to create hologram for shop " + shop.getId() + ": " + e.getMessage());
-                errorCount++;
             }
         }
-        
-        if (successCount > 0 || errorCount > 0) {
-            plugin.getLogger().info("Hologram initialization complete: " + successCount + " created, " + errorCount + " errors");
+        return shops;
+    }
+    
+    /**
+     * Returns true once the startup holograms have been created
+     */
+    public static boolean isInitialized() {
+        return initialized;
+    }
+    
+    /**
+     * Marks hologram entities, the value is the shop id
+     */
+    public static NamespacedKey hologramKey() {
+        if (hologramKey == null) {
+            hologramKey = new NamespacedKey(ChestShopPlugin.getInstance(), "hologram");
         }
+        return hologramKey;
     }
     
-    private static ArmorStand createTextHologram(Location location, String text, String name) {
-        ArmorStand armorStand = (ArmorStand) location.getWorld().spawnEntity(location, EntityType.ARMOR_STAND);
-        
-        armorStand.setVisible(false);
-        armorStand.setGravity(false);
-        armorStand.setCanPickupItems(false);
-        armorStand.setCustomName(text);
-        armorStand.setCustomNameVisible(true);
-        armorStand.setSmall(true);
-        armorStand.setMarker(true);
-        armorStand.setInvulnerable(true);
-        armorStand.setPersistent(false);
-        
-        return armorStand;
+    /**
+     * Spawns a non-persistent text display; displays that are not visible by default are shown per player
+     */
+    public static TextDisplay createTextDisplay(String shopId, Location location, String text, boolean visibleByDefault) {
+        // Configured before it is added to the world, so clients never see a default display
+        return location.getWorld().spawn(location, TextDisplay.class, display -> {
+            display.getPersistentDataContainer().set(hologramKey(), PersistentDataType.STRING, shopId);
+            display.setVisibleByDefault(visibleByDefault);
+            display.setText(text);
+            display.setBillboard(Display.Billboard.CENTER);
+            display.setAlignment(TextDisplay.TextAlignment.CENTER);
+            display.setPersistent(false);
+        });
     }
     
-    private static Item createItemHologram(Location location, ItemStack itemStack, String name) {
-        Item item = location.getWorld().dropItem(location, itemStack);
-        
-        item.setVelocity(new Vector(0, 0, 0));
-        item.setPickupDelay(Integer.MAX_VALUE);
-        item.setGravity(false);
-        item.setInvulnerable(true);
-        item.setPersistent(false);
-        
-        return item;
+    public static ItemDisplay createItemDisplay(String shopId, Location location, ItemStack itemStack, boolean visibleByDefault) {
+        return location.getWorld().spawn(location, ItemDisplay.class, display -> {
+            display.getPersistentDataContainer().set(hologramKey(), PersistentDataType.STRING, shopId);
+            display.setVisibleByDefault(visibleByDefault);
+            display.setItemStack(itemStack);
+            display.setItemDisplayTransform(ItemDisplay.ItemDisplayTransform.GROUND);
+            display.setBillboard(Display.Billboard.VERTICAL);
+            display.setPersistent(false);
+        });
+    }
+    
+    private static HologramViewTracker viewTracker() {
+        ChestShopPlugin plugin = ChestShopPlugin.getInstance();
+        return plugin != null ? plugin.getHologramViewTracker() : null;
+    }
+    
+    /**
+     * Info line and price line as shown on the text display, one or both depending on the config
+     */
+    private static String formatDisplayText(Shop shop, ChestShopPlugin plugin) {
+        ChestShopSettings settings = plugin.getSettings();
+        if (!settings.hologramShowPrices()) {
+            return formatShopText(shop, plugin);
+        }
+        if (!settings.hologramShowText()) {
+            return formatPriceText(shop, plugin);
+        }
+        return formatShopText(shop, plugin) + "\n" + formatPriceText(shop, plugin);
     }
     
     private static String formatShopText(Shop shop, ChestShopPlugin plugin) {
-        boolean itemTradingEnabled = plugin.getConfigManager().getConfig().getBoolean("item-trading.enabled", false);
+        boolean itemTradingEnabled = plugin.getSettings().itemTradingEnabled();
         
         if (itemTradingEnabled && shop.isItemTradingShop()) {
             // Trading shop text format
-            String template = plugin.getConfigManager().getConfig().getString("holograms.trading-text-format", 
-                "&9[ItemShop] &b%owner%");
+            TextTemplate template = plugin.getSettings().hologramTradingTextFormat();
                 
-            return template
-                .replace("%owner%", shop.getOwnerName())
-                .replace("%buy_item%", shop.getBuyItemType().name())
-                .replace("%buy_amount%", String.valueOf(shop.getBuyItemAmount()))
-                .replace("%sell_item%", shop.getSellItemType().name())
-                .replace("%sell_amount%", String.valueOf(shop.getSellItemAmount()))
-                .replace("%stock_giving%", String.valueOf(shop.getTradingStockForGiving()))
-                .replace("%stock_receiving%", String.valueOf(shop.getTradingStockForReceiving()))
-                .replace("&", "§");
+            return template.render(placeholder -> switch (placeholder) {
+                case "owner" -> shop.getOwnerName();
+                case "buy_item" -> shop.getBuyItemType().name();
+                case "buy_amount" -> String.valueOf(shop.getBuyItemAmount());
+                case "sell_item" -> shop.getSellItemType().name();
+                case "sell_amount" -> String.valueOf(shop.getSellItemAmount());
+                case "stock_giving" -> String.valueOf(shop.getTradingStockForGiving());
+                case "stock_receiving" -> String.valueOf(shop.getTradingStockForReceiving());
+                default -> null;
+            });
         } else {
             // Normal shop text format
-            String template = plugin.getConfigManager().getConfig().getString("holograms.text-format", 
-                "&6[ChestShop] &b%owner%");
+            TextTemplate template = plugin.getSettings().hologramTextFormat();
             
-            return template
-                .replace("%owner%", shop.getOwnerName())
-                .replace("%item%", shop.getItem().name())
-                .replace("%amount%", String.valueOf(shop.getAmount()))
-                .replace("%stock%", String.valueOf(shop.getStock()))
-                .replace("&", "§");
+            return template.render(placeholder -> switch (placeholder) {
+                case "owner" -> shop.getOwnerName();
+                case "item" -> shop.getItem().name();
+                case "amount" -> String.valueOf(shop.getAmount());
+                case "stock" -> String.valueOf(shop.getStock());
+                default -> null;
+            });
         }
     }
     
     private static String formatPriceText(Shop shop, ChestShopPlugin plugin) {
-        boolean itemTradingEnabled = plugin.getConfigManager().getConfig().getBoolean("item-trading.enabled", false);
+        boolean itemTradingEnabled = plugin.getSettings().itemTradingEnabled();
         
         if (itemTradingEnabled && shop.isItemTradingShop()) {
             // Trading shop price format (shows trading ratio)
-            String template = plugin.getConfigManager().getConfig().getString("holograms.trading-price-format", 
-                "&e%buy_amount%x %buy_item% &6-> &a%sell_amount%x %sell_item%");
+            TextTemplate template = plugin.getSettings().hologramTradingPriceFormat();
                 
-            return template
-                .replace("%buy_amount%", String.valueOf(shop.getBuyItemAmount()))
-                .replace("%buy_item%", getShortItemName(shop.getBuyItem()))
-                .replace("%sell_amount%", String.valueOf(shop.getSellItemAmount()))
-                .replace("%sell_item%", getShortItemName(shop.getSellItem()))
-                .replace("&", "§");
+            return template.render(placeholder -> switch (placeholder) {
+                case "buy_amount" -> String.valueOf(shop.getBuyItemAmount());
+                case "buy_item" -> ItemNames.shortName(shop.getBuyItem(), HOLOGRAM_ITEM_NAME_LENGTH);
+                case "sell_amount" -> String.valueOf(shop.getSellItemAmount());
+                case "sell_item" -> ItemNames.shortName(shop.getSellItem(), HOLOGRAM_ITEM_NAME_LENGTH);
+                default -> null;
+            });
         } else {
             // Normal shop price format
-            String buyText = shop.hasBuyPrice() ? 
-                plugin.getEconomyManager().formatSimple(shop.getBuyPrice()) : "---";
-            String sellText = shop.hasSellPrice() ? 
-                plugin.getEconomyManager().formatSimple(shop.getSellPrice()) : "---";
-                
-            String template = plugin.getConfigManager().getConfig().getString("holograms.price-format", 
-                "&aBuy: %buy% &cSell: %sell%");
+            TextTemplate template = plugin.getSettings().hologramPriceFormat();
             
-            return template
-                .replace("%buy%", buyText)
-                .replace("%sell%", sellText)
-                .replace("&", "§");
-        }
-    }
-    
-    /**
-     * Get a shortened version of an item name for holograms
-     */
-    private static String getShortItemName(org.bukkit.Material material) {
-        String fullName = material.name().toLowerCase().replace("_", " ");
-        String[] words = fullName.split(" ");
-        StringBuilder result = new StringBuilder();
-        
-        for (String word : words) {
-            if (result.length() > 0) {
-                result.append(" ");
-            }
-            result.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
-        }
-        
-        String displayName = result.toString();
-        
-        // If the name is already short enough, return it
-        if (displayName.length() <= 12) {
-            return displayName;
+            return template.render(placeholder -> switch (placeholder) {
+                case "buy" -> shop.hasBuyPrice() ? plugin.getEconomyManager().formatSimple(shop.getBuyPrice()) : "---";
+                case "sell" -> shop.hasSellPrice() ? plugin.getEconomyManager().formatSimple(shop.getSellPrice()) : "---";
+                default -> null;
+            });
         }
-        
-        // Try to abbreviate common words
-        String abbreviated = displayName
-            .replace("Diamond", "Dia")
-            .replace("Iron", "Fe")
-            .replace("Golden", "Au")
-            .replace("Stone", "St")
-            .replace("Wooden", "Wd")
-            .replace("Leather", "Lea")
-            .replace("Enchanted", "Ench")
-            .replace(" Of ", " ")
-            .replace(" The ", " ")
-            .replace("Block", "Bl");
-        
-        // If still too long, take first 12 characters
-        if (abbreviated.length() > 12) {
-            abbreviated = abbreviated.substring(0, 12);
-        }
-        
-        return abbreviated;
     }
 }
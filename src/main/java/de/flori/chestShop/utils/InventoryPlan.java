@@ -0,0 +1,152 @@
+package de.flori.chestShop.utils;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Item moves between inventories, planned on a single scan per inventory and applied together.
+ * Taking and giving only changes a working copy of the contents; the real inventories are written in {@link #apply()}.
+ * A plan that failed a take or give is invalid and must be discarded. Main thread only.
+ */
+public class InventoryPlan {
+
+    private final List<Side> sides = new ArrayList<>(2);
+    private boolean valid = true;
+
+    /**
+     * Reads the storage contents of the inventory once and adds it to the plan
+     */
+    public Side scan(Inventory inventory) {
+        Side side = new Side(inventory);
+        sides.add(side);
+        return side;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Writes all changed slots of all inventories
+     */
+    public void apply() {
+        if (!valid) {
+            throw new IllegalStateException("Cannot apply an invalid inventory plan");
+        }
+        for (Side side : sides) {
+            side.apply();
+        }
+    }
+
+    public class Side {
+
+        private final Inventory inventory;
+        private final ItemStack[] contents;
+        private final boolean[] changed;
+
+        private Side(Inventory inventory) {
+            this.inventory = inventory;
+            // The returned stacks mirror the live inventory, they are replaced by copies before any change
+            this.contents = inventory.getStorageContents();
+            this.changed = new boolean[contents.length];
+        }
+
+        /**
+         * Returns the planned amount of the material
+         */
+        public int count(Material material) {
+            int count = 0;
+            for (ItemStack stack : contents) {
+                if (stack != null && stack.getType() == material) {
+                    count += stack.getAmount();
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Returns how many plain items of the material still fit
+         */
+        public int space(Material material) {
+            ItemStack template = new ItemStack(material);
+            int maxStackSize = material.getMaxStackSize();
+            int space = 0;
+            for (ItemStack stack : contents) {
+                if (stack == null) {
+                    space += maxStackSize;
+                } else if (stack.isSimilar(template)) {
+                    space += Math.max(0, maxStackSize - stack.getAmount());
+                }
+            }
+            return space;
+        }
+
+        /**
+         * Plans to remove the amount, invalidates the plan if there are not enough items
+         */
+        public boolean take(Material material, int amount) {
+            if (count(material) < amount) {
+                valid = false;
+                return false;
+            }
+
+            int remaining = amount;
+            for (int i = 0; i < contents.length && remaining > 0; i++) {
+                ItemStack stack = contents[i];
+                if (stack == null || stack.getType() != material) continue;
+
+                int taken = Math.min(stack.getAmount(), remaining);
+                contents[i] = taken == stack.getAmount() ? null : stack.asQuantity(stack.getAmount() - taken);
+                changed[i] = true;
+                remaining -= taken;
+            }
+            return true;
+        }
+
+        /**
+         * Plans to add the amount as plain items (partial stacks first, like addItem),
+         * invalidates the plan if not everything fits
+         */
+        public boolean give(Material material, int amount) {
+            ItemStack template = new ItemStack(material);
+            int maxStackSize = material.getMaxStackSize();
+            int remaining = amount;
+
+            for (int i = 0; i < contents.length && remaining > 0; i++) {
+                ItemStack stack = contents[i];
+                if (stack == null || stack.getAmount() >= maxStackSize || !stack.isSimilar(template)) continue;
+
+                int added = Math.min(maxStackSize - stack.getAmount(), remaining);
+                contents[i] = stack.asQuantity(stack.getAmount() + added);
+                changed[i] = true;
+                remaining -= added;
+            }
+            for (int i = 0; i < contents.length && remaining > 0; i++) {
+                if (contents[i] != null) continue;
+
+                int added = Math.min(maxStackSize, remaining);
+                contents[i] = template.asQuantity(added);
+                changed[i] = true;
+                remaining -= added;
+            }
+
+            if (remaining > 0) {
+                valid = false;
+                return false;
+            }
+            return true;
+        }
+
+        private void apply() {
+            for (int i = 0; i < contents.length; i++) {
+                if (changed[i]) {
+                    inventory.setItem(i, contents[i]);
+                }
+            }
+        }
+    }
+}
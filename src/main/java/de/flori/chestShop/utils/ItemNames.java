@@ -0,0 +1,74 @@
+package de.flori.chestShop.utils;
+
+import org.bukkit.Material;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Readable material names ("DIAMOND_SWORD" -> "Diamond Sword"), computed once per material.
+ * Main thread only.
+ */
+public class ItemNames {
+
+    private static final Map<Material, String> displayNames = new EnumMap<>(Material.class);
+    // Short names by maximum length (signs use 8, holograms 12 characters)
+    private static final Map<Integer, Map<Material, String>> shortNames = new HashMap<>();
+
+    public static String displayName(Material material) {
+        if (material == null) return "Unknown";
+        return displayNames.computeIfAbsent(material, ItemNames::toDisplayName);
+    }
+
+    /**
+     * Display name abbreviated to fit into {@code maxLength} characters
+     */
+    public static String shortName(Material material, int maxLength) {
+        if (material == null) return "Unknown";
+        return shortNames.computeIfAbsent(maxLength, length -> new EnumMap<>(Material.class))
+                .computeIfAbsent(material, key -> abbreviate(displayName(key), maxLength));
+    }
+
+    private static String toDisplayName(Material material) {
+        String[] words = material.name().toLowerCase().split("_");
+        StringBuilder result = new StringBuilder();
+
+        for (String word : words) {
+            if (word.isEmpty()) continue;
+            if (result.length() > 0) {
+                result.append(' ');
+            }
+            result.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+
+        return result.toString();
+    }
+
+    private static String abbreviate(String name, int maxLength) {
+        // If the name is already short enough, return it
+        if (name.length() <= maxLength) {
+            return name;
+        }
+
+        // Try to abbreviate common words
+        String abbreviated = name
+            .replace("Diamond", "Dia")
+            .replace("Iron", "Fe")
+            .replace("Golden", "Au")
+            .replace("Stone", "St")
+            .replace("Wooden", "Wd")
+            .replace("Leather", "Lea")
+            .replace("Enchanted", "Ench")
+            .replace(" Of ", " ")
+            .replace(" The ", " ")
+            .replace("Block", "Bl");
+
+        // If still too long, cut it off
+        if (abbreviated.length() > maxLength) {
+            abbreviated = abbreviated.substring(0, maxLength);
+        }
+
+        return abbreviated;
+    }
+}
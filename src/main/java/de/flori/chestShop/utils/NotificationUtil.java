@@ -18,12 +18,12 @@ public class NotificationUtil {
      * Prüft ob ein Shop einen niedrigen Lagerbestand hat und benachrichtigt den Besitzer
      */
     public static void checkLowStock(Shop shop, ChestShopPlugin plugin) {
-        if (!plugin.getConfigManager().getConfig().getBoolean("notifications.low-stock.enabled", true)) {
+        if (!plugin.getSettings().lowStockNotifications()) {
             return;
         }
         
         int currentStock = shop.getStock();
-        int lowStockThreshold = plugin.getConfigManager().getConfig().getInt("notifications.low-stock.threshold", 5);
+        int lowStockThreshold = plugin.getSettings().lowStockThreshold();
         
         if (currentStock <= lowStockThreshold && shop.hasBuyPrice()) {
             String notificationKey = shop.getId() + "_lowstock";
@@ -58,7 +58,7 @@ public class NotificationUtil {
      * Prüft ob ein Shop voll ist und benachrichtigt den Besitzer
      */
     public static void checkFullShop(Shop shop, ChestShopPlugin plugin) {
-        if (!plugin.getConfigManager().getConfig().getBoolean("notifications.full-shop.enabled", true)) {
+        if (!plugin.getSettings().fullShopNotifications()) {
             return;
         }
         
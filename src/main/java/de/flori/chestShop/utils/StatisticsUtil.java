@@ -110,7 +110,7 @@ public class StatisticsUtil {
      * Searches for shops by item
      */
     public static List<Shop> searchShopsByItem(Material item, ChestShopPlugin plugin) {
-        return plugin.getShopManager().getAllShops().stream()
+        return plugin.getShopManager().getShopsByItem(item).stream()
                 .filter(shop -> shop.getItem() == item && shop.isActive())
                 .collect(Collectors.toList());
     }
@@ -119,14 +119,7 @@ public class StatisticsUtil {
      * Searches for shops by price range
      */
     public static List<Shop> searchShopsByPriceRange(double minPrice, double maxPrice, boolean isBuyPrice, ChestShopPlugin plugin) {
-        return plugin.getShopManager().getAllShops().stream()
-                .filter(shop -> {
-                    if (!shop.isActive()) return false;
-                    
-                    double price = isBuyPrice ? shop.getBuyPrice() : shop.getSellPrice();
-                    return price >= minPrice && price <= maxPrice && price > 0;
-                })
-                .collect(Collectors.toList());
+        return plugin.getShopManager().getShopsByPriceRange(minPrice, maxPrice, isBuyPrice);
     }
     
     /**
@@ -139,25 +132,18 @@ public class StatisticsUtil {
     }
     
     /**
-     * Gets shops sorted by best buy prices for an item
+     * Gets shops sorted by best buy prices (per item) for an item
      */
     public static List<Shop> getBestBuyPrices(Material item, int limit, ChestShopPlugin plugin) {
-        return plugin.getShopManager().getAllShops().stream()
-                .filter(shop -> shop.getItem() == item && shop.isActive() && shop.hasBuyPrice() && shop.getStock() > 0)
-                .sorted(Comparator.comparingDouble(Shop::getBuyPrice))
-                .limit(limit)
-                .collect(Collectors.toList());
+        // Stock is only checked for the shops walked through until the limit is reached
+        return plugin.getShopManager().getBestBuyOffers(item, limit, shop -> shop.getStock() > 0);
     }
     
     /**
-     * Gets shops sorted by best sell prices for an item
+     * Gets shops sorted by best sell prices (per item) for an item
      */
     public static List<Shop> getBestSellPrices(Material item, int limit, ChestShopPlugin plugin) {
-        return plugin.getShopManager().getAllShops().stream()
-                .filter(shop -> shop.getItem() == item && shop.isActive() && shop.hasSellPrice() && shop.getAvailableSpace() > 0)
-                .sorted(Comparator.comparingDouble(Shop::getSellPrice).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+        return plugin.getShopManager().getBestSellOffers(item, limit, shop -> shop.getAvailableSpace() > 0);
     }
     
     /**
@@ -318,16 +304,15 @@ public class StatisticsUtil {
      * Gets statistics for shops within a certain distance of a location
      */
     public static List<Shop> getNearbyShops(org.bukkit.Location location, double maxDistance, ChestShopPlugin plugin) {
-        return plugin.getShopManager().getAllShops().stream()
-                .filter(shop -> {
-                    if (!shop.isActive()) return false;
-                    if (!shop.getChestLocation().getWorld().equals(location.getWorld())) return false;
-                    
-                    double distance = shop.getChestLocation().distance(location);
-                    return distance <= maxDistance;
-                })
-                .sorted(Comparator.comparingDouble(shop -> shop.getChestLocation().distance(location)))
-                .collect(Collectors.toList());
+        return plugin.getShopManager().getShopsInRadius(location, maxDistance, Shop::isActive);
+    }
+    
+    /**
+     * Gets the nearest active shops selling a specific item, nearest first
+     */
+    public static List<Shop> getNearestShopsSelling(org.bukkit.Location location, Material item, int limit, double maxDistance, ChestShopPlugin plugin) {
+        return plugin.getShopManager().getNearestShops(location, limit, maxDistance,
+                shop -> shop.isActive() && shop.getItem() == item && shop.hasBuyPrice());
     }
     
     /**
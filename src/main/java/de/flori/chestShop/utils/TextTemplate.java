@@ -0,0 +1,155 @@
+package de.flori.chestShop.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A configured text format ("&a%amount% %item%") parsed once into literal and placeholder segments.
+ * Color codes of the literals are translated while parsing, rendering is a single StringBuilder pass.
+ * Compiled templates are cached by their format string, so a changed format after a reload is compiled once again.
+ */
+public class TextTemplate {
+
+    /**
+     * Supplies the value of a placeholder (name without percent signs), null keeps the placeholder as written
+     */
+    @FunctionalInterface
+    public interface Resolver {
+        String resolve(String placeholder);
+    }
+
+    private static final Map<String, TextTemplate> cache = new HashMap<>();
+
+    // Literal segments are stored as they are, placeholder segments by name with isPlaceholder set
+    private final String[] segments;
+    private final boolean[] isPlaceholder;
+    private final int literalLength;
+    // Full text of templates without placeholders
+    private final String constant;
+
+    private TextTemplate(String[] segments, boolean[] isPlaceholder) {
+        this.segments = segments;
+        this.isPlaceholder = isPlaceholder;
+        int length = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if (!isPlaceholder[i]) {
+                length += segments[i].length();
+            }
+        }
+        this.literalLength = length;
+        this.constant = segments.length == 0 ? "" : segments.length == 1 && !isPlaceholder[0] ? segments[0] : null;
+    }
+
+    /**
+     * Returns the compiled template for the format (main thread only)
+     */
+    public static TextTemplate of(String format) {
+        return cache.computeIfAbsent(format != null ? format : "", TextTemplate::compile);
+    }
+
+    public static void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Renders with up to four placeholder values given by name (without percent signs), unused pairs are null
+     */
+    public String render(String name1, String value1, String name2, String value2,
+                         String name3, String value3, String name4, String value4) {
+        if (constant != null) {
+            return constant;
+        }
+        StringBuilder builder = new StringBuilder(literalLength + 16 * segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (!isPlaceholder[i]) {
+                builder.append(segment);
+            } else if (segment.equals(name1)) {
+                builder.append(value1);
+            } else if (segment.equals(name2)) {
+                builder.append(value2);
+            } else if (segment.equals(name3)) {
+                builder.append(value3);
+            } else if (segment.equals(name4)) {
+                builder.append(value4);
+            } else {
+                builder.append('%').append(segment).append('%');
+            }
+        }
+        return builder.toString();
+    }
+
+    public String render(Resolver resolver) {
+        return render("", resolver);
+    }
+
+    /**
+     * Renders the template behind the prefix (e.g. a status color)
+     */
+    public String render(String prefix, Resolver resolver) {
+        StringBuilder builder = new StringBuilder(prefix.length() + literalLength + 16 * segments.length);
+        builder.append(prefix);
+        for (int i = 0; i < segments.length; i++) {
+            if (!isPlaceholder[i]) {
+                builder.append(segments[i]);
+                continue;
+            }
+            String value = resolver.resolve(segments[i]);
+            if (value != null) {
+                builder.append(value);
+            } else {
+                builder.append('%').append(segments[i]).append('%');
+            }
+        }
+        return builder.toString();
+    }
+
+    private static TextTemplate compile(String format) {
+        List<String> segments = new ArrayList<>();
+        List<Boolean> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i);
+            if (c == '%') {
+                int end = format.indexOf('%', i + 1);
+                if (end > i + 1 && isPlaceholderName(format, i + 1, end)) {
+                    if (literal.length() > 0) {
+                        segments.add(literal.toString());
+                        placeholders.add(false);
+                        literal.setLength(0);
+                    }
+                    segments.add(format.substring(i + 1, end));
+                    placeholders.add(true);
+                    i = end + 1;
+                    continue;
+                }
+            }
+            literal.append(c == '&' ? '§' : c);
+            i++;
+        }
+        if (literal.length() > 0) {
+            segments.add(literal.toString());
+            placeholders.add(false);
+        }
+
+        boolean[] isPlaceholder = new boolean[placeholders.size()];
+        for (int j = 0; j < isPlaceholder.length; j++) {
+            isPlaceholder[j] = placeholders.get(j);
+        }
+        return new TextTemplate(segments.toArray(new String[0]), isPlaceholder);
+    }
+
+    private static boolean isPlaceholderName(String format, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = format.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9') && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -5,7 +5,6 @@ import de.flori.chestShop.models.Shop;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.ItemStack;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,7 +19,7 @@ public class TradingUtil {
      */
     public static boolean handleItemTrade(Player player, Shop shop, ChestShopPlugin plugin) {
         // Check if item trading is enabled
-        if (!plugin.getConfigManager().getConfig().getBoolean("item-trading.enabled", false)) {
+        if (!plugin.getSettings().itemTradingEnabled()) {
             player.sendMessage(plugin.getConfigManager().getMessage("item-trading.creation.feature-disabled"));
             return false;
         }
@@ -62,28 +61,14 @@ public class TradingUtil {
             }
         }
         
-        // Validate player has required items
-        if (!hasRequiredItems(player, shop, plugin)) {
-            return false;
-        }
-        
-        // Validate shop has items to give
-        if (!shopHasItemsToGive(shop, player, plugin)) {
-            return false;
-        }
-        
-        // Validate player has inventory space
-        if (!playerHasInventorySpace(player, shop, plugin)) {
-            return false;
-        }
-        
-        // Validate shop has space for received items
-        if (!shopHasSpaceForItems(shop, player, plugin)) {
+        // Validate both inventories and plan the item moves
+        InventoryPlan plan = planItemTrade(player, shop, plugin);
+        if (plan == null) {
             return false;
         }
         
         // Execute the trade
-        return executeItemTrade(player, shop, plugin);
+        return executeItemTrade(player, shop, plan, plugin);
     }
     
     /**
@@ -114,110 +99,65 @@ public class TradingUtil {
     }
     
     /**
-     * Validates if the player has the required items for trading
+     * Validates the trade with one scan of the player and the shop inventory.
+     * Returns the planned item moves, or null after telling the player why the trade is not possible.
      */
-    private static boolean hasRequiredItems(Player player, Shop shop, ChestShopPlugin plugin) {
-        int requiredAmount = shop.getBuyItemAmount();
+    private static InventoryPlan planItemTrade(Player player, Shop shop, ChestShopPlugin plugin) {
         Material requiredItem = shop.getBuyItemType();
+        int requiredAmount = shop.getBuyItemAmount();
+        Material givenItem = shop.getSellItemType();
+        int givenAmount = shop.getSellItemAmount();
         
-        int playerItemCount = getPlayerItemCount(player, requiredItem);
+        InventoryPlan plan = new InventoryPlan();
+        InventoryPlan.Side playerSide = plan.scan(player.getInventory());
         
-        if (playerItemCount < requiredAmount) {
+        // Validate player has required items
+        if (!playerSide.take(requiredItem, requiredAmount)) {
             player.sendMessage(plugin.getConfigManager().getMessage("item-trading.trading.insufficient-items",
                 "%needed%", String.valueOf(requiredAmount),
                 "%item%", getItemDisplayName(requiredItem)));
-            return false;
+            return null;
         }
         
-        return true;
-    }
-    
-    /**
-     * Validates if shop has items to give
-     */
-    private static boolean shopHasItemsToGive(Shop shop, Player player, ChestShopPlugin plugin) {
-        int requiredStock = shop.getSellItemAmount();
-        int availableStock = shop.getItemStock(shop.getSellItemType());
-        
-        if (availableStock < requiredStock) {
+        // Validate shop has items to give
+        Inventory shopInventory = shop.getChestInventory();
+        InventoryPlan.Side shopSide = shopInventory != null ? plan.scan(shopInventory) : null;
+        if (shopSide == null || !shopSide.take(givenItem, givenAmount)) {
+            shop.invalidateInventoryCounts();
             player.sendMessage(plugin.getConfigManager().getMessage("item-trading.trading.insufficient-stock",
-                "%available%", String.valueOf(availableStock),
-                "%item%", getItemDisplayName(shop.getSellItemType())));
-            return false;
+                "%available%", String.valueOf(shopSide != null ? shopSide.count(givenItem) : 0),
+                "%item%", getItemDisplayName(givenItem)));
+            return null;
         }
         
-        return true;
-    }
-    
-    /**
-     * Validates if player has inventory space for received items
-     */
-    private static boolean playerHasInventorySpace(Player player, Shop shop, ChestShopPlugin plugin) {
-        int spaceNeeded = shop.getSellItemAmount();
-        int availableSpace = getPlayerInventorySpace(player, shop.getSellItemType());
-        
-        if (availableSpace < spaceNeeded) {
+        // Validate player has inventory space (the paid items are already taken out)
+        if (!playerSide.give(givenItem, givenAmount)) {
             player.sendMessage(plugin.getConfigManager().getMessage("item-trading.trading.insufficient-space",
-                "%amount%", String.valueOf(spaceNeeded),
-                "%item%", getItemDisplayName(shop.getSellItemType())));
-            return false;
+                "%amount%", String.valueOf(givenAmount),
+                "%item%", getItemDisplayName(givenItem)));
+            return null;
         }
         
-        return true;
-    }
-    
-    /**
-     * Validates if shop has space for received items
-     */
-    private static boolean shopHasSpaceForItems(Shop shop, Player player, ChestShopPlugin plugin) {
-        int spaceNeeded = shop.getBuyItemAmount();
-        int availableSpace = shop.getItemSpace(shop.getBuyItemType());
-        
-        if (availableSpace < spaceNeeded) {
+        // Validate shop has space for received items
+        if (!shopSide.give(requiredItem, requiredAmount)) {
             player.sendMessage(plugin.getConfigManager().getMessage("item-trading.trading.shop-insufficient-space",
-                "%amount%", String.valueOf(spaceNeeded),
-                "%item%", getItemDisplayName(shop.getBuyItemType())));
-            return false;
+                "%amount%", String.valueOf(requiredAmount),
+                "%item%", getItemDisplayName(requiredItem)));
+            return null;
         }
         
-        return true;
+        return plan;
     }
     
     /**
      * Executes the actual item trade
      */
-    private static boolean executeItemTrade(Player player, Shop shop, ChestShopPlugin plugin) {
+    private static boolean executeItemTrade(Player player, Shop shop, InventoryPlan plan, ChestShopPlugin plugin) {
         try {
-            // Remove items from player
-            if (!removeItemsFromPlayer(player, shop.getBuyItemType(), shop.getBuyItemAmount())) {
-                player.sendMessage(plugin.getConfigManager().getMessage("item-trading.errors.conversion-failed",
-                    "%reason%", "Could not remove items from inventory"));
-                return false;
-            }
-            
-            // Add items to shop
-            if (!addItemsToShop(shop, shop.getBuyItemType(), shop.getBuyItemAmount(), plugin)) {
-                // Rollback - give items back to player
-                giveItemsToPlayer(player, shop.getBuyItemType(), shop.getBuyItemAmount());
-                player.sendMessage(plugin.getConfigManager().getMessage("item-trading.trading.shop-insufficient-space",
-                    "%amount%", String.valueOf(shop.getBuyItemAmount()),
-                    "%item%", getItemDisplayName(shop.getBuyItemType())));
-                return false;
-            }
-            
-            // Remove items from shop
-            if (!removeItemsFromShop(shop, shop.getSellItemType(), shop.getSellItemAmount(), plugin)) {
-                // Rollback
-                removeItemsFromShop(shop, shop.getBuyItemType(), shop.getBuyItemAmount(), plugin);
-                giveItemsToPlayer(player, shop.getBuyItemType(), shop.getBuyItemAmount());
-                player.sendMessage(plugin.getConfigManager().getMessage("item-trading.trading.insufficient-stock",
-                    "%available%", String.valueOf(shop.getItemStock(shop.getSellItemType())),
-                    "%item%", getItemDisplayName(shop.getSellItemType())));
-                return false;
-            }
-            
-            // Give items to player
-            giveItemsToPlayer(player, shop.getSellItemType(), shop.getSellItemAmount());
+            // Move all items at once
+            plan.apply();
+            shop.applyInventoryChange(shop.getBuyItemType(), shop.getBuyItemAmount(),
+                shop.getSellItemType(), -shop.getSellItemAmount());
             
             // Update shop last used
             shop.updateLastUsed();
@@ -257,7 +197,7 @@ public class TradingUtil {
             }
             
             // Update sign
-            SignUtil.updateShopSign(shop, plugin);
+            plugin.getRefreshScheduler().markDirty(shop);
             
             return true;
             
@@ -313,155 +253,11 @@ public class TradingUtil {
         }
     }
     
-    /**
-     * Counts player's items of a specific type
-     */
-    private static int getPlayerItemCount(Player player, Material material) {
-        Inventory inventory = player.getInventory();
-        int count = 0;
-        
-        for (ItemStack item : inventory.getContents()) {
-            if (item != null && item.getType() == material) {
-                count += item.getAmount();
-            }
-        }
-        
-        return count;
-    }
-    
-    /**
-     * Gets available inventory space for a specific item type
-     */
-    private static int getPlayerInventorySpace(Player player, Material material) {
-        Inventory inventory = player.getInventory();
-        int space = 0;
-        int maxStackSize = material.getMaxStackSize();
-        
-        for (ItemStack item : inventory.getStorageContents()) {
-            if (item == null) {
-                space += maxStackSize;
-            } else if (item.getType() == material) {
-                space += maxStackSize - item.getAmount();
-            }
-        }
-        
-        return space;
-    }
-    
-    /**
-     * Removes items from player inventory
-     */
-    private static boolean removeItemsFromPlayer(Player player, Material material, int amount) {
-        Inventory inventory = player.getInventory();
-        int remaining = amount;
-        
-        // First pass: count available items
-        int available = getPlayerItemCount(player, material);
-        if (available < amount) {
-            return false;
-        }
-        
-        // Second pass: remove items
-        for (int i = 0; i < inventory.getSize() && remaining > 0; i++) {
-            ItemStack item = inventory.getItem(i);
-            if (item != null && item.getType() == material) {
-                if (item.getAmount() <= remaining) {
-                    remaining -= item.getAmount();
-                    inventory.setItem(i, null);
-                } else {
-                    item.setAmount(item.getAmount() - remaining);
-                    remaining = 0;
-                }
-            }
-        }
-        
-        return remaining == 0;
-    }
-    
-    /**
-     * Gives items to player
-     */
-    private static void giveItemsToPlayer(Player player, Material material, int amount) {
-        ItemStack itemStack = new ItemStack(material, amount);
-        Map<Integer, ItemStack> leftover = player.getInventory().addItem(itemStack);
-        
-        // Drop leftover items if inventory is full
-        if (!leftover.isEmpty()) {
-            for (ItemStack item : leftover.values()) {
-                player.getWorld().dropItemNaturally(player.getLocation(), item);
-            }
-        }
-    }
-    
-    /**
-     * Adds items to shop chest
-     */
-    private static boolean addItemsToShop(Shop shop, Material material, int amount, ChestShopPlugin plugin) {
-        org.bukkit.block.Chest chest = shop.getChest();
-        if (chest == null) return false;
-        
-        ItemStack itemStack = new ItemStack(material, amount);
-        Map<Integer, ItemStack> leftover = chest.getInventory().addItem(itemStack);
-        
-        return leftover.isEmpty();
-    }
-    
-    /**
-     * Removes items from shop chest
-     */
-    private static boolean removeItemsFromShop(Shop shop, Material material, int amount, ChestShopPlugin plugin) {
-        org.bukkit.block.Chest chest = shop.getChest();
-        if (chest == null) return false;
-        
-        Inventory inventory = chest.getInventory();
-        int remaining = amount;
-        
-        // First pass: check availability
-        int available = shop.getItemStock(material);
-        if (available < amount) {
-            return false;
-        }
-        
-        // Second pass: remove items
-        for (int i = 0; i < inventory.getSize() && remaining > 0; i++) {
-            ItemStack item = inventory.getItem(i);
-            if (item != null && item.getType() == material) {
-                if (item.getAmount() <= remaining) {
-                    remaining -= item.getAmount();
-                    inventory.setItem(i, null);
-                } else {
-                    item.setAmount(item.getAmount() - remaining);
-                    remaining = 0;
-                }
-            }
-        }
-        
-        return remaining == 0;
-    }
-    
     /**
      * Gets display name for material
      */
     public static String getItemDisplayName(Material material) {
-        if (material == null) return "Unknown";
-        
-        String name = material.name().toLowerCase().replace("_", " ");
-        String[] words = name.split(" ");
-        StringBuilder result = new StringBuilder();
-        
-        for (String word : words) {
-            if (result.length() > 0) {
-                result.append(" ");
-            }
-            if (word.length() > 0) {
-                result.append(Character.toUpperCase(word.charAt(0)));
-                if (word.length() > 1) {
-                    result.append(word.substring(1));
-                }
-            }
-        }
-        
-        return result.toString();
+        return ItemNames.displayName(material);
     }
     
     // Public validation methods for commands
@@ -526,6 +322,7 @@ public class TradingUtil {
         // Clear money prices to avoid confusion
         shop.setBuyPrice(0);
         shop.setSellPrice(0);
+        plugin.getShopManager().reindexShop(shop);
         
         // Update shop sign
         SignUtil.updateShopSign(shop, plugin);
@@ -4,229 +4,241 @@ import de.flori.chestShop.ChestShopPlugin;
 import de.flori.chestShop.models.Shop;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.ItemStack;
-
-import java.util.HashMap;
 
 public class TransactionUtil {
 
+    /**
+     * Requests as many lots as stock, space, money and the bulk limit allow
+     */
+    public static final int ALL_LOTS = Integer.MAX_VALUE;
+
     public static void handleBuyTransaction(Player buyer, Shop shop, ChestShopPlugin plugin) {
-        int amount = shop.getAmount();
-        double price = shop.getBuyPrice();
+        handleBuyTransaction(buyer, shop, 1, plugin);
+    }
+
+    /**
+     * Buys up to {@code requestedLots} times the shop amount as one transaction
+     */
+    public static void handleBuyTransaction(Player buyer, Shop shop, int requestedLots, ChestShopPlugin plugin) {
+        int lotSize = shop.getAmount();
+        double lotPrice = shop.getBuyPrice();
 
         // Prüfungen
-        if (!shop.canBuy(amount)) {
-            buyer.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.insufficient-stock"));
+        if (!shop.canBuy(lotSize)) {
+            buyer.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-stock"));
+            return;
+        }
+
+        if (!plugin.getEconomyManager().hasEnough(buyer, lotPrice)) {
+            buyer.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-money",
+                "price", plugin.getEconomyManager().format(lotPrice)));
             return;
         }
 
-        if (!plugin.getEconomyManager().hasEnough(buyer, price)) {
-            buyer.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.insufficient-money",
-                "%price%", plugin.getEconomyManager().format(price)));
+        // Chest und Spieler-Inventar je einmal scannen, geändert wird erst nach allen Prüfungen
+        Inventory chestInventory = shop.getChestInventory();
+        InventoryPlan plan = new InventoryPlan();
+        InventoryPlan.Side chestSide = chestInventory != null ? plan.scan(chestInventory) : null;
+        InventoryPlan.Side playerSide = plan.scan(buyer.getInventory());
+
+        int lots = getLotLimit(requestedLots, plugin);
+        lots = Math.min(lots, chestSide != null ? chestSide.count(shop.getItem()) / lotSize : 0);
+        if (lots == 0) {
+            shop.invalidateInventoryCounts();
+            buyer.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-stock"));
             return;
         }
+        if (lotPrice > 0) {
+            lots = (int) Math.min(lots, Math.floor(plugin.getEconomyManager().getBalance(buyer) / lotPrice));
+            if (lots == 0) {
+                buyer.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-money",
+                    "price", plugin.getEconomyManager().format(lotPrice)));
+                return;
+            }
+        }
 
         // Check if player has inventory space
-        if (!hasInventorySpace(buyer, shop.getItem(), amount)) {
-            buyer.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.insufficient-space"));
+        lots = Math.min(lots, playerSide.space(shop.getItem()) / lotSize);
+        if (lots == 0) {
+            buyer.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-space"));
+            return;
+        }
+
+        int amount = lots * lotSize;
+        double price = lots * lotPrice;
+        if (!chestSide.take(shop.getItem(), amount) || !playerSide.give(shop.getItem(), amount)) {
+            shop.invalidateInventoryCounts();
+            buyer.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-stock"));
+            return;
+        }
+
+        // Geld abziehen
+        if (!plugin.getEconomyManager().withdraw(buyer, price)) {
+            buyer.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-money",
+                "price", plugin.getEconomyManager().format(price)));
             return;
         }
 
         // Transaktion durchführen
-        if (removeItemsFromChest(shop, amount)) {
-            // Geld abziehen
-            plugin.getEconomyManager().withdraw(buyer, price);
-            
-            // Geld an Owner geben
-            Player owner = plugin.getServer().getPlayer(shop.getOwnerId());
-            if (owner != null) {
-                plugin.getEconomyManager().deposit(owner, price);
-                owner.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.owner-notification-buy",
-                    "%player%", buyer.getName(),
-                    "%amount%", String.valueOf(amount),
-                    "%item%", shop.getItem().name(),
-                    "%price%", plugin.getEconomyManager().format(price)));
-            }
+        plan.apply();
+        shop.applyInventoryChange(shop.getItem(), -amount);
 
-            // Items geben
-            ItemStack itemStack = new ItemStack(shop.getItem(), amount);
-            buyer.getInventory().addItem(itemStack);
-
-            buyer.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.buy-success",
-                "%amount%", String.valueOf(amount),
-                "%item%", shop.getItem().name(),
-                "%price%", plugin.getEconomyManager().format(price)));
-
-            // Shop aktualisieren
-            shop.updateLastUsed();
-            SignUtil.updateShopSign(shop, plugin);
-            
-            // Benachrichtigungen prüfen
-            NotificationUtil.checkLowStock(shop, plugin);
-            
-            // Statistiken aktualisieren
-            if (plugin.getConfigManager().getConfig().getBoolean("statistics.enabled", true)) {
-                StatisticsUtil.recordPurchase(shop.getItem().name(), amount, buyer.getUniqueId(), price, shop.getId());
-            }
+        // Geld an Owner geben
+        Player owner = plugin.getServer().getPlayer(shop.getOwnerId());
+        if (owner != null) {
+            plugin.getEconomyManager().deposit(owner, price);
+            owner.sendMessage(plugin.getMessages().get("shop.transaction.owner-notification-buy",
+                "player", buyer.getName(),
+                "amount", String.valueOf(amount),
+                "item", shop.getItem().name(),
+                "price", plugin.getEconomyManager().format(price)));
+        }
 
-            // Logging
-            if (plugin.getConfigManager().getConfig().getBoolean("logging.log-transactions")) {
-                plugin.getLogger().info(String.format("PURCHASE: %s bought %dx %s for %s from %s",
-                    buyer.getName(), amount, shop.getItem().name(), 
-                    plugin.getEconomyManager().format(price), shop.getOwnerName()));
-            }
-        } else {
-            buyer.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.insufficient-stock"));
+        buyer.sendMessage(plugin.getMessages().get("shop.transaction.buy-success",
+            "amount", String.valueOf(amount),
+            "item", shop.getItem().name(),
+            "price", plugin.getEconomyManager().format(price)));
+
+        sendPartialNotice(buyer, lots, requestedLots, plugin);
+
+        // Shop aktualisieren
+        shop.updateLastUsed();
+        plugin.getRefreshScheduler().markDirty(shop);
+        
+        // Benachrichtigungen prüfen
+        NotificationUtil.checkLowStock(shop, plugin);
+        
+        // Statistiken aktualisieren
+        if (plugin.getSettings().statisticsEnabled()) {
+            StatisticsUtil.recordPurchase(shop.getItem().name(), amount, buyer.getUniqueId(), price, shop.getId());
+        }
+
+        // Logging
+        if (plugin.getSettings().logTransactions()) {
+            plugin.getLogger().info(String.format("PURCHASE: %s bought %dx %s for %s from %s",
+                buyer.getName(), amount, shop.getItem().name(), 
+                plugin.getEconomyManager().format(price), shop.getOwnerName()));
         }
     }
 
     public static void handleSellTransaction(Player seller, Shop shop, ChestShopPlugin plugin) {
-        int amount = shop.getAmount();
-        double price = shop.getSellPrice();
+        handleSellTransaction(seller, shop, 1, plugin);
+    }
+
+    /**
+     * Sells up to {@code requestedLots} times the shop amount as one transaction
+     */
+    public static void handleSellTransaction(Player seller, Shop shop, int requestedLots, ChestShopPlugin plugin) {
+        int lotSize = shop.getAmount();
+        double lotPrice = shop.getSellPrice();
 
         // Prüfungen
-        if (!shop.canSell(amount)) {
-            seller.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.insufficient-space"));
+        if (!shop.canSell(lotSize)) {
+            seller.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-space"));
             return;
         }
 
+        InventoryPlan plan = new InventoryPlan();
+        InventoryPlan.Side playerSide = plan.scan(seller.getInventory());
+        Inventory chestInventory = shop.getChestInventory();
+        InventoryPlan.Side chestSide = chestInventory != null ? plan.scan(chestInventory) : null;
+
         // Prüfen ob Spieler genügend Items hat
-        if (!hasEnoughItems(seller, shop.getItem(), amount)) {
-            seller.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.insufficient-items"));
+        int lots = Math.min(getLotLimit(requestedLots, plugin), playerSide.count(shop.getItem()) / lotSize);
+        if (lots == 0) {
+            seller.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-items"));
             return;
         }
 
-        // Check if owner has enough money
-        Player owner = plugin.getServer().getPlayer(shop.getOwnerId());
-        if (owner != null && !plugin.getEconomyManager().hasEnough(owner, price)) {
-            seller.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.owner-insufficient-funds"));
+        lots = Math.min(lots, chestSide != null ? chestSide.space(shop.getItem()) / lotSize : 0);
+        if (lots == 0) {
+            shop.invalidateInventoryCounts();
+            seller.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-space"));
             return;
         }
 
-        // Items aus Spieler-Inventar entfernen
-        if (removeItemsFromPlayer(seller, shop.getItem(), amount)) {
-            // Items in Chest legen
-            addItemsToChest(shop, shop.getItem(), amount);
-
-            // Geld an Verkäufer geben
-            plugin.getEconomyManager().deposit(seller, price);
-            
-            // Geld von Owner abziehen
-            if (owner != null) {
-                plugin.getEconomyManager().withdraw(owner, price);
-                owner.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.owner-notification-sell",
-                    "%player%", seller.getName(),
-                    "%amount%", String.valueOf(amount),
-                    "%item%", shop.getItem().name(),
-                    "%price%", plugin.getEconomyManager().format(price)));
+        // Check if owner has enough money
+        Player owner = plugin.getServer().getPlayer(shop.getOwnerId());
+        if (owner != null && lotPrice > 0) {
+            lots = (int) Math.min(lots, Math.floor(plugin.getEconomyManager().getBalance(owner) / lotPrice));
+            if (lots == 0) {
+                seller.sendMessage(plugin.getMessages().get("shop.transaction.owner-insufficient-funds"));
+                return;
             }
+        }
 
-            seller.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.sell-success",
-                "%amount%", String.valueOf(amount),
-                "%item%", shop.getItem().name(),
-                "%price%", plugin.getEconomyManager().format(price)));
-
-            // Shop aktualisieren
-            shop.updateLastUsed();
-            SignUtil.updateShopSign(shop, plugin);
-            
-            // Benachrichtigungen prüfen
-            NotificationUtil.checkFullShop(shop, plugin);
-            
-            // Statistiken aktualisieren
-            if (plugin.getConfigManager().getConfig().getBoolean("statistics.enabled", true)) {
-                StatisticsUtil.recordSale(shop.getItem().name(), amount, seller.getUniqueId(), price, shop.getId());
-            }
+        int amount = lots * lotSize;
+        double price = lots * lotPrice;
+        if (!playerSide.take(shop.getItem(), amount) || !chestSide.give(shop.getItem(), amount)) {
+            shop.invalidateInventoryCounts();
+            seller.sendMessage(plugin.getMessages().get("shop.transaction.insufficient-space"));
+            return;
+        }
 
-            // Logging
-            if (plugin.getConfigManager().getConfig().getBoolean("logging.log-transactions")) {
-                plugin.getLogger().info(String.format("SALE: %s sold %dx %s for %s to %s",
-                    seller.getName(), amount, shop.getItem().name(), 
-                    plugin.getEconomyManager().format(price), shop.getOwnerName()));
-            }
-        } else {
-            seller.sendMessage(plugin.getConfigManager().getMessage("shop.transaction.insufficient-items"));
+        // Geld von Owner abziehen
+        if (owner != null && !plugin.getEconomyManager().withdraw(owner, price)) {
+            seller.sendMessage(plugin.getMessages().get("shop.transaction.owner-insufficient-funds"));
+            return;
         }
-    }
 
-    private static boolean hasInventorySpace(Player player, org.bukkit.Material material, int amount) {
-        Inventory inventory = player.getInventory();
-        int space = 0;
-        int maxStackSize = material.getMaxStackSize();
+        // Items aus Spieler-Inventar in die Chest legen
+        plan.apply();
+        shop.applyInventoryChange(shop.getItem(), amount);
 
-        for (ItemStack item : inventory.getContents()) {
-            if (item == null) {
-                space += maxStackSize;
-            } else if (item.getType() == material) {
-                space += maxStackSize - item.getAmount();
-            }
+        // Geld an Verkäufer geben
+        plugin.getEconomyManager().deposit(seller, price);
+        
+        if (owner != null) {
+            owner.sendMessage(plugin.getMessages().get("shop.transaction.owner-notification-sell",
+                "player", seller.getName(),
+                "amount", String.valueOf(amount),
+                "item", shop.getItem().name(),
+                "price", plugin.getEconomyManager().format(price)));
         }
 
-        return space >= amount;
-    }
+        seller.sendMessage(plugin.getMessages().get("shop.transaction.sell-success",
+            "amount", String.valueOf(amount),
+            "item", shop.getItem().name(),
+            "price", plugin.getEconomyManager().format(price)));
 
-    private static boolean hasEnoughItems(Player player, org.bukkit.Material material, int amount) {
-        int totalAmount = 0;
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item != null && item.getType() == material) {
-                totalAmount += item.getAmount();
-            }
-        }
-        return totalAmount >= amount;
-    }
+        sendPartialNotice(seller, lots, requestedLots, plugin);
 
-    private static boolean removeItemsFromChest(Shop shop, int amount) {
-        Inventory inventory = shop.getChest().getInventory();
-        int remaining = amount;
-
-        for (int i = 0; i < inventory.getSize() && remaining > 0; i++) {
-            ItemStack item = inventory.getItem(i);
-            if (item != null && item.getType() == shop.getItem()) {
-                int itemAmount = item.getAmount();
-                if (itemAmount <= remaining) {
-                    inventory.clear(i);
-                    remaining -= itemAmount;
-                } else {
-                    item.setAmount(itemAmount - remaining);
-                    remaining = 0;
-                }
-            }
+        // Shop aktualisieren
+        shop.updateLastUsed();
+        plugin.getRefreshScheduler().markDirty(shop);
+        
+        // Benachrichtigungen prüfen
+        NotificationUtil.checkFullShop(shop, plugin);
+        
+        // Statistiken aktualisieren
+        if (plugin.getSettings().statisticsEnabled()) {
+            StatisticsUtil.recordSale(shop.getItem().name(), amount, seller.getUniqueId(), price, shop.getId());
         }
 
-        return remaining == 0;
+        // Logging
+        if (plugin.getSettings().logTransactions()) {
+            plugin.getLogger().info(String.format("SALE: %s sold %dx %s for %s to %s",
+                seller.getName(), amount, shop.getItem().name(), 
+                plugin.getEconomyManager().format(price), shop.getOwnerName()));
+        }
     }
 
-    private static boolean removeItemsFromPlayer(Player player, org.bukkit.Material material, int amount) {
-        Inventory inventory = player.getInventory();
-        int remaining = amount;
-
-        for (int i = 0; i < inventory.getSize() && remaining > 0; i++) {
-            ItemStack item = inventory.getItem(i);
-            if (item != null && item.getType() == material) {
-                int itemAmount = item.getAmount();
-                if (itemAmount <= remaining) {
-                    inventory.clear(i);
-                    remaining -= itemAmount;
-                } else {
-                    item.setAmount(itemAmount - remaining);
-                    remaining = 0;
-                }
-            }
+    /**
+     * Caps the requested lots at the configured bulk limit (single lots are never capped)
+     */
+    private static int getLotLimit(int requestedLots, ChestShopPlugin plugin) {
+        if (requestedLots <= 1) {
+            return 1;
         }
-
-        return remaining == 0;
+        int maxLots = plugin.getSettings().bulkTradingMaxLots();
+        return Math.max(1, Math.min(requestedLots, maxLots));
     }
 
-    private static void addItemsToChest(Shop shop, org.bukkit.Material material, int amount) {
-        Inventory inventory = shop.getChest().getInventory();
-        ItemStack itemStack = new ItemStack(material, amount);
-        
-        HashMap<Integer, ItemStack> leftover = inventory.addItem(itemStack);
-        
-        // If items are left over, this shouldn't happen as we check beforehand
-        if (!leftover.isEmpty()) {
-            ChestShopPlugin.getInstance().getLogger().warning(
-                "Items could not be completely placed in shop " + shop.getId() + "!");
+    private static void sendPartialNotice(Player player, int lots, int requestedLots, ChestShopPlugin plugin) {
+        if (requestedLots != ALL_LOTS && lots < requestedLots) {
+            player.sendMessage(plugin.getMessages().get("shop.transaction.bulk-partial",
+                "lots", String.valueOf(lots),
+                "requested", String.valueOf(requestedLots)));
         }
     }
 }